@@ -0,0 +1,57 @@
+package benchmarks.uni.fmi.dsaproject.bloomfilter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Single add() calls at 10 bits per element; the filter is cleared whenever
+ * it reaches its capacity. The bits take 1.25 KB, 125 KB, 12.5 MB and 62.5 MB
+ * for the four sizes (eight times that as boolean[]), so roughly L1, L2, last
+ * level cache and main memory. The keys are read too: the pool of 2^16
+ * strings is a few MB and streams through the caches at every size, so even
+ * the smallest filter is not a pure L1 measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AddBenchmark {
+
+	@Param({ "bitset", "booleans" })
+	private String implementation;
+
+	@Param({ "1000", "100000", "10000000", "50000000" })
+	private int expectedElements;
+
+	private FilterAdapter filter;
+	private String[] keys;
+	private int next;
+
+	@Setup
+	public void setUp() throws Exception {
+		this.filter = FilterAdapter.create(this.implementation,
+				this.expectedElements, 10, 7);
+		this.keys = Keys.generate(1, "add");
+	}
+
+	@Benchmark
+	public void add() throws Exception {
+		if (this.filter.elementsCount() == this.expectedElements) {
+			this.filter.clear();
+		}
+		this.filter.add(this.keys[this.next++ & (Keys.POOL_SIZE - 1)]);
+	}
+}
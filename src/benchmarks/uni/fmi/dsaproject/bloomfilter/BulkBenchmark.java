@@ -0,0 +1,85 @@
+package benchmarks.uni.fmi.dsaproject.bloomfilter;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * addAll / containsAll over batches of 1024 keys, reported per key so the
+ * numbers compare directly with AddBenchmark and ContainsBenchmark. The
+ * lookups are timed for batches of added keys and of keys never added, as
+ * the two stop after a different number of probes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BulkBenchmark {
+	private static final int BATCH = 1024;
+
+	@Param({ "bitset", "booleans" })
+	private String implementation;
+
+	@Param({ "100000", "10000000" })
+	private int expectedElements;
+
+	private FilterAdapter filter;
+	private String[][] batches;
+	private String[][] missing;
+	private int next;
+
+	private static String[][] batches(String[] keys) {
+		String[][] batches = new String[Keys.POOL_SIZE / BATCH][];
+		for (int i = 0; i < batches.length; i++) {
+			batches[i] = Arrays.copyOfRange(keys, i * BATCH, (i + 1) * BATCH);
+		}
+		return batches;
+	}
+
+	@Setup
+	public void setUp() throws Exception {
+		this.filter = FilterAdapter.create(this.implementation,
+				this.expectedElements, 10, 7);
+		String[] keys = Keys.generate(3, "bulk");
+		this.batches = batches(keys);
+		this.missing = batches(Keys.generate(4, "miss"));
+		this.filter.addAll(keys);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public boolean[] containsAll() {
+		return this.filter.containsAll(this.batches[this.next++
+				% this.batches.length]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public boolean[] containsAllMisses() {
+		return this.filter.containsAll(this.missing[this.next++
+				% this.missing.length]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void addAll() throws Exception {
+		if (this.filter.elementsCount() > this.expectedElements - BATCH) {
+			this.filter.clear();
+		}
+		this.filter.addAll(this.batches[this.next++ % this.batches.length]);
+	}
+}
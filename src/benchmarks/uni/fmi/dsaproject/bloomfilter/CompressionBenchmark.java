@@ -0,0 +1,93 @@
+package benchmarks.uni.fmi.dsaproject.bloomfilter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.compressed.CompressedBitmap;
+import src.uni.fmi.dsaproject.bloomfilter.compressed.CompressedBloomFilter;
+
+/*
+ * A 10M element, 1% filter filled to the given fraction of its capacity:
+ * contains on the compressed form against the BitSet, and encoding and
+ * decoding the whole bit set. The compressed size is printed in setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CompressionBenchmark {
+
+	@Param({ "0", "0.001", "0.01", "0.1", "1" })
+	private double fill;
+
+	private BloomFilter<String> filter;
+	private CompressedBloomFilter<String> compressed;
+	private long[] words;
+	private String[] hits;
+	private String[] misses;
+	private int next;
+
+	@Setup
+	public void setUp() throws Exception {
+		this.filter = BloomFilter.create(10000000, 0.01);
+		this.hits = Keys.generate(1, "hit");
+		this.misses = Keys.generate(2, "miss");
+		long count = (long) (this.fill * 10000000);
+		for (int i = 0; i < Math.min(count, this.hits.length); i++) {
+			this.filter.add(this.hits[i]);
+		}
+		for (long i = this.hits.length; i < count; i++) {
+			this.filter.addLong(i);
+		}
+		this.compressed = this.filter.compress();
+		this.words = this.compressed.getBits().toLongArray();
+		System.out.println("\nraw " + this.words.length * 8 + " bytes, compressed "
+				+ this.compressed.sizeInBytes() + " bytes");
+	}
+
+	@Benchmark
+	public boolean containsHitBitSet() {
+		return this.filter.contains(this.hits[this.next++
+				& (Keys.POOL_SIZE - 1)]);
+	}
+
+	@Benchmark
+	public boolean containsHitCompressed() {
+		return this.compressed.contains(this.hits[this.next++
+				& (Keys.POOL_SIZE - 1)]);
+	}
+
+	@Benchmark
+	public boolean containsMissCompressed() {
+		return this.compressed.contains(this.misses[this.next++
+				& (Keys.POOL_SIZE - 1)]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public CompressedBitmap encode() throws Exception {
+		return CompressedBitmap.encode(this.words,
+				this.compressed.getBitSetSize());
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long[] decode() throws Exception {
+		this.compressed.getBits().decode(this.words);
+		return this.words;
+	}
+}
@@ -0,0 +1,66 @@
+package benchmarks.uni.fmi.dsaproject.bloomfilter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * contains() for keys that were added (hit, all k probes) and for keys that
+ * were not (miss, usually stops after a probe or two). The filter is half
+ * full so misses see a realistic fill ratio.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ContainsBenchmark {
+
+	@Param({ "bitset", "booleans" })
+	private String implementation;
+
+	@Param({ "100000", "10000000", "50000000" })
+	private int expectedElements;
+
+	private FilterAdapter filter;
+	private String[] hits;
+	private String[] misses;
+	private int next;
+
+	@Setup
+	public void setUp() throws Exception {
+		this.filter = FilterAdapter.create(this.implementation,
+				this.expectedElements, 10, 7);
+		this.hits = Keys.generate(1, "hit");
+		this.misses = Keys.generate(2, "miss");
+		for (String key : this.hits) {
+			this.filter.add(key);
+		}
+		for (long i = this.hits.length; i < this.expectedElements / 2; i++) {
+			this.filter.addLong(i);
+		}
+	}
+
+	@Benchmark
+	public boolean containsHit() {
+		return this.filter.contains(this.hits[this.next++
+				& (Keys.POOL_SIZE - 1)]);
+	}
+
+	@Benchmark
+	public boolean containsMiss() {
+		return this.filter.contains(this.misses[this.next++
+				& (Keys.POOL_SIZE - 1)]);
+	}
+}
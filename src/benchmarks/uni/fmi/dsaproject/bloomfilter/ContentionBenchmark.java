@@ -0,0 +1,92 @@
+package benchmarks.uni.fmi.dsaproject.bloomfilter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Three readers and one writer sharing a filter: the lock-free
+ * ConcurrentBloomFilter against a bitset filter behind one monitor, which is
+ * what callers had to do before.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentionBenchmark {
+	private static final int EXPECTED_ELEMENTS = 1000000;
+
+	@Param({ "concurrent", "locked-bitset" })
+	private String implementation;
+
+	private FilterAdapter filter;
+	private boolean locked;
+	private String[] keys;
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		int next;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			this.next = (int) Thread.currentThread().getId() * 7919;
+		}
+	}
+
+	@Setup
+	public void setUp() throws Exception {
+		this.locked = this.implementation.startsWith("locked");
+		this.filter = FilterAdapter.create(this.locked ? "bitset"
+				: this.implementation, EXPECTED_ELEMENTS, 10, 7);
+		this.keys = Keys.generate(4, "contention");
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(3)
+	public boolean contains(Cursor cursor) {
+		String key = this.keys[cursor.next++ & (Keys.POOL_SIZE - 1)];
+		if (this.locked) {
+			synchronized (this.filter) {
+				return this.filter.contains(key);
+			}
+		}
+		return this.filter.contains(key);
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(1)
+	public void add(Cursor cursor) throws Exception {
+		String key = this.keys[cursor.next++ & (Keys.POOL_SIZE - 1)];
+		if (this.locked) {
+			synchronized (this.filter) {
+				this.add(key);
+			}
+		} else {
+			this.add(key);
+		}
+	}
+
+	private void add(String key) throws Exception {
+		if (this.filter.elementsCount() >= EXPECTED_ELEMENTS - 1) {
+			this.filter.clear();
+		}
+		this.filter.add(key);
+	}
+}
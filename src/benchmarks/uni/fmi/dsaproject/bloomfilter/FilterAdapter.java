@@ -0,0 +1,176 @@
+package benchmarks.uni.fmi.dsaproject.bloomfilter;
+
+import src.uni.fmi.dsaproject.bloomfilter.concurrent.ConcurrentBloomFilter;
+
+/*
+ * Lets one benchmark method drive every implementation; only one of them is
+ * loaded per fork, so the calls stay monomorphic.
+ */
+abstract class FilterAdapter {
+
+	abstract void add(String key) throws Exception;
+
+	abstract void addLong(long key) throws Exception;
+
+	abstract boolean contains(String key);
+
+	abstract void addAll(String[] keys) throws Exception;
+
+	abstract boolean[] containsAll(String[] keys);
+
+	abstract int elementsCount();
+
+	abstract void clear();
+
+	static FilterAdapter create(String implementation, int expectedElements,
+			int bitsPerElement, int hashFuncs) throws Exception {
+		switch (implementation) {
+		case "bitset":
+			return new Bitset(new src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter<String>(
+					bitsPerElement, expectedElements, hashFuncs));
+		case "booleans":
+			return new Booleans(new src.uni.fmi.dsaproject.bloomfilter.booleans.BloomFilter<String>(
+					bitsPerElement, expectedElements, hashFuncs));
+		case "concurrent":
+			return new Concurrent(new ConcurrentBloomFilter<String>(
+					bitsPerElement, expectedElements, hashFuncs));
+		default:
+			throw new Exception("Unknown implementation: " + implementation);
+		}
+	}
+
+	private static final class Bitset extends FilterAdapter {
+		private final src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter<String> bf;
+
+		Bitset(src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter<String> bf) {
+			this.bf = bf;
+		}
+
+		@Override
+		void add(String key) throws Exception {
+			this.bf.add(key);
+		}
+
+		@Override
+		void addLong(long key) throws Exception {
+			this.bf.addLong(key);
+		}
+
+		@Override
+		boolean contains(String key) {
+			return this.bf.contains(key);
+		}
+
+		@Override
+		void addAll(String[] keys) throws Exception {
+			this.bf.addAll(keys);
+		}
+
+		@Override
+		boolean[] containsAll(String[] keys) {
+			return this.bf.containsAll(keys);
+		}
+
+		@Override
+		int elementsCount() {
+			return (int) this.bf.elementsCount();
+		}
+
+		@Override
+		void clear() {
+			this.bf.clear();
+		}
+	}
+
+	private static final class Booleans extends FilterAdapter {
+		private final src.uni.fmi.dsaproject.bloomfilter.booleans.BloomFilter<String> bf;
+
+		Booleans(src.uni.fmi.dsaproject.bloomfilter.booleans.BloomFilter<String> bf) {
+			this.bf = bf;
+		}
+
+		@Override
+		void add(String key) throws Exception {
+			this.bf.add(key);
+		}
+
+		@Override
+		void addLong(long key) throws Exception {
+			this.bf.addLong(key);
+		}
+
+		@Override
+		boolean contains(String key) {
+			return this.bf.contains(key);
+		}
+
+		@Override
+		void addAll(String[] keys) throws Exception {
+			this.bf.addAll(keys);
+		}
+
+		@Override
+		boolean[] containsAll(String[] keys) {
+			return this.bf.containsAll(keys);
+		}
+
+		@Override
+		int elementsCount() {
+			return (int) this.bf.elementsCount();
+		}
+
+		@Override
+		void clear() {
+			this.bf.clear();
+		}
+	}
+
+	private static final class Concurrent extends FilterAdapter {
+		private final ConcurrentBloomFilter<String> bf;
+
+		Concurrent(ConcurrentBloomFilter<String> bf) {
+			this.bf = bf;
+		}
+
+		@Override
+		void add(String key) throws Exception {
+			this.bf.add(key);
+		}
+
+		@Override
+		void addLong(long key) throws Exception {
+			this.bf.addLong(key);
+		}
+
+		@Override
+		boolean contains(String key) {
+			return this.bf.contains(key);
+		}
+
+		@Override
+		void addAll(String[] keys) throws Exception {
+			for (String key : keys) {
+				this.bf.add(key);
+			}
+		}
+
+		@Override
+		boolean[] containsAll(String[] keys) {
+			boolean[] result = new boolean[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				result[i] = this.bf.contains(keys[i]);
+			}
+			return result;
+		}
+
+		@Override
+		int elementsCount() {
+			return (int) this.bf.elementsCount();
+		}
+
+		@Override
+		void clear() {
+			this.bf.clear();
+		}
+	}
+}
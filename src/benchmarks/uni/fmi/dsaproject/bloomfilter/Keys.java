@@ -0,0 +1,21 @@
+package benchmarks.uni.fmi.dsaproject.bloomfilter;
+
+import java.util.Random;
+
+final class Keys {
+	// enough keys to defeat caching of the key objects themselves
+	static final int POOL_SIZE = 1 << 16;
+
+	private Keys() {
+	}
+
+	static String[] generate(long seed, String prefix) {
+		Random r = new Random(seed);
+		String[] keys = new String[POOL_SIZE];
+		for (int i = 0; i < POOL_SIZE; i++) {
+			keys[i] = prefix + Long.toHexString(r.nextLong())
+					+ Long.toHexString(r.nextLong());
+		}
+		return keys;
+	}
+}
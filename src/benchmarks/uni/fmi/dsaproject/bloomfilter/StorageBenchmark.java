@@ -0,0 +1,91 @@
+package benchmarks.uni.fmi.dsaproject.bloomfilter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import src.uni.fmi.dsaproject.bloomfilter.core.StorageBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.storage.StorageType;
+
+/*
+ * The storage backends head to head under the same filter code, sized for a
+ * 1% false positive rate and half full.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageBenchmark {
+
+	@Param({ "BOOLEANS", "BIT_SET", "LONGS", "ATOMIC_LONGS", "OFF_HEAP" })
+	private StorageType storage;
+
+	@Param({ "100000", "10000000" })
+	private int expectedElements;
+
+	private StorageBloomFilter<String> filter;
+	private String[] hits;
+	private String[] misses;
+	private long[] longKeys;
+	private int next;
+
+	@Setup
+	public void setUp() throws Exception {
+		this.filter = StorageBloomFilter.create(this.expectedElements, 0.01,
+				this.storage);
+		this.hits = Keys.generate(1, "hit");
+		this.misses = Keys.generate(2, "miss");
+		for (String key : this.hits) {
+			this.filter.add(key);
+		}
+		for (long i = this.hits.length; i < this.expectedElements / 2; i++) {
+			this.filter.addLong(i);
+		}
+		// half of them were added above
+		this.longKeys = new long[1024];
+		for (int i = 0; i < this.longKeys.length; i++) {
+			this.longKeys[i] = this.expectedElements / 2 - 512 + i;
+		}
+	}
+
+	@Benchmark
+	public boolean containsHit() {
+		return this.filter.contains(this.hits[this.next++
+				& (Keys.POOL_SIZE - 1)]);
+	}
+
+	@Benchmark
+	public boolean containsMiss() {
+		return this.filter.contains(this.misses[this.next++
+				& (Keys.POOL_SIZE - 1)]);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(1024)
+	public boolean[] containsAllLongs() {
+		return this.filter.containsAllLongs(this.longKeys);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(1024)
+	public boolean[] containsLongOneByOne() {
+		boolean[] result = new boolean[this.longKeys.length];
+		for (int i = 0; i < this.longKeys.length; i++) {
+			result[i] = this.filter.containsLong(this.longKeys[i]);
+		}
+		return result;
+	}
+}
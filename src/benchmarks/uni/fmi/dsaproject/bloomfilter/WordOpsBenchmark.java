@@ -0,0 +1,94 @@
+package benchmarks.uni.fmi.dsaproject.bloomfilter;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import src.uni.fmi.dsaproject.bloomfilter.storage.WordOps;
+
+/*
+ * WordOps against the same operations unrolled by hand four words at a time,
+ * per call over the given number of words. The unrolled versions are kept to
+ * re-check on new JVMs that the vectorizer still wins.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WordOpsBenchmark {
+
+	@Param({ "1024", "1048576" })
+	private int words;
+
+	private long[] a;
+	private long[] b;
+
+	@Setup
+	public void setUp() {
+		Random r = new Random(5);
+		this.a = new long[this.words];
+		this.b = new long[this.words];
+		for (int i = 0; i < this.words; i++) {
+			this.a[i] = r.nextLong();
+			this.b[i] = r.nextLong();
+		}
+	}
+
+	@Benchmark
+	public long popcountWordOps() {
+		return WordOps.popcount(this.a);
+	}
+
+	@Benchmark
+	public long popcountUnrolled() {
+		long c0 = 0;
+		long c1 = 0;
+		long c2 = 0;
+		long c3 = 0;
+		int i = 0;
+		for (; i + 3 < this.a.length; i += 4) {
+			c0 += Long.bitCount(this.a[i]);
+			c1 += Long.bitCount(this.a[i + 1]);
+			c2 += Long.bitCount(this.a[i + 2]);
+			c3 += Long.bitCount(this.a[i + 3]);
+		}
+		for (; i < this.a.length; i++) {
+			c0 += Long.bitCount(this.a[i]);
+		}
+		return c0 + c1 + c2 + c3;
+	}
+
+	@Benchmark
+	public long[] orWordOps() {
+		WordOps.or(this.a, this.b);
+		return this.a;
+	}
+
+	@Benchmark
+	public long[] orUnrolled() {
+		int i = 0;
+		for (; i + 3 < this.a.length; i += 4) {
+			this.a[i] |= this.b[i];
+			this.a[i + 1] |= this.b[i + 1];
+			this.a[i + 2] |= this.b[i + 2];
+			this.a[i + 3] |= this.b[i + 3];
+		}
+		for (; i < this.a.length; i++) {
+			this.a[i] |= this.b[i];
+		}
+		return this.a;
+	}
+}
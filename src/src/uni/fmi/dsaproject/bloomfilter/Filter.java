@@ -0,0 +1,21 @@
+package src.uni.fmi.dsaproject.bloomfilter;
+
+/*
+ * What every approximate membership filter in this project answers to, so
+ * callers can switch implementations without touching their code. contains
+ * may return false positives, never false negatives.
+ */
+public interface Filter<E> {
+
+	void add(E element) throws Exception;
+
+	boolean contains(E element);
+
+	void clear() throws Exception;
+
+	// at the expected number of elements
+	double expectedFalsePositiveProbability();
+
+	// at the current number of elements
+	double getFalsePositiveProbability();
+}
@@ -0,0 +1,259 @@
+package src.uni.fmi.dsaproject.bloomfilter.async;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import src.uni.fmi.dsaproject.bloomfilter.Filter;
+
+/*
+ * Takes adds and lookups off the caller's thread. Every writer thread owns a
+ * bounded queue; callers enqueue and get a CompletableFuture back, writers
+ * drain up to maxBatch operations at a time, apply them to the filter and
+ * then complete the futures, so a completed add is visible to every reader.
+ *
+ * Elements are routed to a queue by hashCode(), so operations on equal
+ * elements are applied in submission order: a containsAsync after an
+ * addAsync of the same element sees it. A full queue blocks addAsync and
+ * containsAsync (back-pressure) and fails tryAddAsync.
+ *
+ * With more than one writer the filter must be thread-safe, e.g.
+ * ConcurrentBloomFilter or a StorageBloomFilter on ATOMIC_LONGS. Futures are
+ * completed on the writer threads, heavy callbacks belong in the *Async
+ * CompletableFuture methods. Writers come from the given ThreadFactory; on
+ * Java 21 and later that may be Thread.ofVirtual().factory().
+ */
+public class AsyncIngestor<E> implements Closeable {
+	public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+	public static final int DEFAULT_MAX_BATCH = 256;
+
+	private static final int ADD = 0;
+	private static final int CONTAINS = 1;
+	private static final int FLUSH = 2;
+	private static final int STOP = 3;
+
+	private static final class Operation<E> {
+		final int type;
+		final E element;
+		final CompletableFuture<Boolean> future;
+
+		Operation(int type, E element) {
+			this.type = type;
+			this.element = element;
+			this.future = new CompletableFuture<>();
+		}
+	}
+
+	private final Filter<E> filter;
+	private final List<BlockingQueue<Operation<E>>> queues;
+	private final Thread[] writers;
+	private final AtomicIntegerArray stopped;
+	private final int maxBatch;
+	private volatile boolean closed;
+
+	public AsyncIngestor(Filter<E> filter, int writerThreads,
+			int queueCapacity, int maxBatch, ThreadFactory threadFactory)
+			throws Exception {
+		if (writerThreads <= 0 || queueCapacity <= 0 || maxBatch <= 0) {
+			throw new Exception("Invalid ingestor parameters");
+		}
+		this.filter = filter;
+		this.maxBatch = maxBatch;
+		this.queues = new ArrayList<>(writerThreads);
+		this.writers = new Thread[writerThreads];
+		this.stopped = new AtomicIntegerArray(writerThreads);
+		for (int i = 0; i < writerThreads; i++) {
+			this.queues.add(new ArrayBlockingQueue<Operation<E>>(queueCapacity));
+		}
+		for (int i = 0; i < writerThreads; i++) {
+			final int writer = i;
+			this.writers[i] = threadFactory.newThread(new Runnable() {
+				@Override
+				public void run() {
+					AsyncIngestor.this.write(writer);
+				}
+			});
+			this.writers[i].start();
+		}
+	}
+
+	// one daemon writer thread, the filter needs no thread safety
+	public AsyncIngestor(Filter<E> filter) throws Exception {
+		this(filter, 1, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH,
+				daemonThreads());
+	}
+
+	public static ThreadFactory daemonThreads() {
+		final AtomicInteger count = new AtomicInteger();
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "bloomfilter-ingestor-"
+						+ count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	private int queueOf(E element) {
+		int h = element.hashCode();
+		h ^= h >>> 16;
+		return (h & Integer.MAX_VALUE) % this.queues.size();
+	}
+
+	/*
+	 * The writer sets its stopped flag before its final drain, so an
+	 * operation that lands in the queue after that drain finds the flag set
+	 * here and is taken back and failed: no future is left hanging.
+	 */
+	private CompletableFuture<Boolean> enqueue(int queue, Operation<E> op,
+			boolean block) throws InterruptedException {
+		if (this.closed) {
+			op.future.completeExceptionally(new Exception("Ingestor is closed"));
+			return op.future;
+		}
+		BlockingQueue<Operation<E>> target = this.queues.get(queue);
+		if (block) {
+			target.put(op);
+		} else if (!target.offer(op)) {
+			op.future.completeExceptionally(new Exception(
+					"Ingestion queue is full"));
+			return op.future;
+		}
+		if (this.stopped.get(queue) != 0 && target.remove(op)) {
+			op.future.completeExceptionally(new Exception("Ingestor is closed"));
+		}
+		return op.future;
+	}
+
+	// completes with true once the element is in the filter
+	public CompletableFuture<Boolean> addAsync(E element)
+			throws InterruptedException {
+		return this.enqueue(this.queueOf(element), new Operation<E>(ADD,
+				element), true);
+	}
+
+	// like addAsync, but fails the future instead of waiting for room
+	public CompletableFuture<Boolean> tryAddAsync(E element) {
+		try {
+			return this.enqueue(this.queueOf(element), new Operation<E>(ADD,
+					element), false);
+		} catch (InterruptedException e) {
+			// offer does not wait, so it cannot be interrupted
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public CompletableFuture<Boolean> containsAsync(E element)
+			throws InterruptedException {
+		return this.enqueue(this.queueOf(element), new Operation<E>(CONTAINS,
+				element), true);
+	}
+
+	// completes once everything submitted before the call has been applied
+	public CompletableFuture<Void> flush() throws InterruptedException {
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[this.queues
+				.size()];
+		for (int i = 0; i < futures.length; i++) {
+			futures[i] = this.enqueue(i, new Operation<E>(FLUSH, null), true);
+		}
+		return CompletableFuture.allOf(futures);
+	}
+
+	public Filter<E> getFilter() {
+		return this.filter;
+	}
+
+	// lookups are answered after the adds of the same batch
+	private void apply(List<Operation<E>> batch) {
+		for (Operation<E> op : batch) {
+			try {
+				if (op.type == ADD) {
+					this.filter.add(op.element);
+				}
+			} catch (Exception e) {
+				op.future.completeExceptionally(e);
+			}
+		}
+		// completed only after the whole batch is in the filter; a funnel that
+		// throws fails its own future and never the writer
+		for (Operation<E> op : batch) {
+			try {
+				if (op.type == CONTAINS) {
+					op.future.complete(this.filter.contains(op.element));
+				} else {
+					op.future.complete(true);
+				}
+			} catch (Exception e) {
+				op.future.completeExceptionally(e);
+			}
+		}
+	}
+
+	private void write(int writer) {
+		BlockingQueue<Operation<E>> queue = this.queues.get(writer);
+		List<Operation<E>> batch = new ArrayList<>(this.maxBatch);
+		boolean running = true;
+		while (running) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				continue;
+			}
+			queue.drainTo(batch, this.maxBatch - 1);
+			for (Operation<E> op : batch) {
+				if (op.type == STOP) {
+					running = false;
+				}
+			}
+			this.apply(batch);
+			batch.clear();
+		}
+		this.stopped.set(writer, 1);
+		queue.drainTo(batch);
+		this.apply(batch);
+	}
+
+	/*
+	 * Stops taking operations, applies everything already queued and waits
+	 * for the writers to finish.
+	 */
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		boolean interrupted = false;
+		for (BlockingQueue<Operation<E>> queue : this.queues) {
+			while (true) {
+				try {
+					queue.put(new Operation<E>(STOP, null));
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		for (Thread writer : this.writers) {
+			while (writer.isAlive()) {
+				try {
+					writer.join(TimeUnit.SECONDS.toMillis(1));
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,174 +1,288 @@
 package src.uni.fmi.dsaproject.bloomfilter.bitset;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.BitSet;
-
-public class BloomFilter<E> {
-	private BitSet bitset;
-	private int hashFuncs;
-	private int bitPerElement;
-	private int expectedNumberOfElements;
-	private int elementsInBloomFilter;
-	private int bitSetSize;
-	private MessageDigest digestFunction;
-
-	private long[] createHashes(byte[] data, int hashes) {
-		long[] result = new long[hashes];
-		int k = 0;
-		byte salt = 0;
-		while (k < hashes) {
-			byte[] digest;
-			synchronized (this.digestFunction) {
-				//update digest by specific byte (salt)
-				this.digestFunction.update(salt);
-				salt++;
-				//Performs a final update on the digest using the specified array of bytes, then completes the digest computation
-				//the input to be updated before the digest is completed. digest(input)
-				digest = this.digestFunction.digest(data);
-			}
-			for (int i = 0; i < digest.length / 4 && k < hashes; i++) {
-				int h = 0;
-				for (int j = (i * 4); j < (i * 4) + 4; j++) {
-					//move with 8bits
-					h <<= 8;
-					//h = h | number & 255  ( binary operations )
-					h |= ((int) digest[j]) & 0xFF;
-				}
-				result[k] = h;
-				k++;
-			}
-		}
-		return result;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import src.uni.fmi.dsaproject.bloomfilter.compressed.CompressedBitmap;
+import src.uni.fmi.dsaproject.bloomfilter.compressed.CompressedBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.core.AbstractBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnel;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnels;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterFormat;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterHeader;
+import src.uni.fmi.dsaproject.bloomfilter.sizing.FilterSizing;
+import src.uni.fmi.dsaproject.bloomfilter.snapshot.FilterSnapshot;
+import src.uni.fmi.dsaproject.bloomfilter.storage.BitSetStorage;
+
+// the core filter on a java.util.BitSet, see AbstractBloomFilter
+public class BloomFilter<E> extends AbstractBloomFilter<E> {
+
+	private BloomFilter(BitSetStorage storage, long expectedNumberOElements,
+			int hashFuncs, HashStrategy hashStrategy, Funnel<? super E> funnel)
+			throws Exception {
+		super(storage, expectedNumberOElements, hashFuncs, hashStrategy, funnel);
 	}
 
-	private void add(byte[] data) {
-		long[] hashes = this.createHashes(data, this.getHashFunctionsCount());
-		for (long iHash : hashes) {
-			this.bitset.set(Math.abs((int) (iHash % this.bitSetSize)), true);
-		}
+	public BloomFilter(int bitsPerElement, int expectedNumberOElements,
+			int hashFuncs, HashStrategy hashStrategy, Funnel<? super E> funnel)
+			throws Exception {
+		this(new BitSetStorage((long) expectedNumberOElements * bitsPerElement),
+				expectedNumberOElements, hashFuncs, hashStrategy, funnel);
 	}
 
-	private boolean contains(byte[] data) {
-		long[] hashes = this.createHashes(data, this.getHashFunctionsCount());
-		for (long iHash : hashes) {
-			if (!this.bitset.get(Math.abs((int) (iHash % this.bitSetSize)))) {
-				return false;
-			}
-		}
-		return true;
+	public BloomFilter(int bitsPerElement, int expectedNumberOElements,
+			int hashFuncs, HashStrategy hashStrategy) throws Exception {
+		this(bitsPerElement, expectedNumberOElements, hashFuncs, hashStrategy,
+				Funnels.TO_STRING);
+	}
+
+	// restores a filter from its backing words, as returned by toLongArray()
+	public BloomFilter(int bitsPerElement, int expectedNumberOElements,
+			int hashFuncs, HashStrategy hashStrategy, long[] words,
+			int elementsInBloomFilter) throws Exception {
+		this(new BitSetStorage((long) expectedNumberOElements * bitsPerElement,
+				words), expectedNumberOElements, hashFuncs, hashStrategy,
+				Funnels.TO_STRING);
+		this.setElementsCount(elementsInBloomFilter);
+	}
+
+	// empty filter of the serialized shape with its count, see FilterFormat
+	private BloomFilter(FilterHeader header) throws Exception {
+		this(new BitSetStorage(header.getBitSetSize()), header
+				.getExpectedNumberOfElements(),
+				header.getHashFunctionsCount(), HashStrategies.forId(header
+						.getHashStrategyId()), Funnels.TO_STRING);
+		this.setElementsCount(header.getElementsCount());
 	}
 
 	public BloomFilter(int bitsPerElement, int expectedNumberOElements,
 			int hashFuncs) throws Exception {
-		this.bitSetSize = (int) Math.ceil(expectedNumberOElements
-				* bitsPerElement);
-		this.bitPerElement = bitsPerElement;
-		this.expectedNumberOfElements = expectedNumberOElements;
-		this.hashFuncs = hashFuncs;
-		this.elementsInBloomFilter = 0;
-		this.bitset = new BitSet(bitSetSize);
-		try {
-			//squid uses MD5 - good for bloomfilter
-			//MD5 hash function
-			this.digestFunction = MessageDigest.getInstance("MD5");
-		} catch (NoSuchAlgorithmException e) {
-			throw new Exception("MD5 could not be found");
-		}
+		this(bitsPerElement, expectedNumberOElements, hashFuncs,
+				HashStrategies.XXHASH64);
 	}
 
-	public BloomFilter(int bitSetSize, int expectedNumberOElements)
-			throws Exception {
+	public BloomFilter(int bitSetSize, int expectedNumberOElements,
+			HashStrategy hashStrategy) throws Exception {
 		this(bitSetSize / expectedNumberOElements, expectedNumberOElements,
 				(int) Math.round((bitSetSize / expectedNumberOElements)
-						* Math.log(2.0)));
+						* Math.log(2.0)), hashStrategy);
 	}
 
-	public void add(E element) throws Exception {
-		if (this.elementsInBloomFilter == this.expectedNumberOfElements) {
-			throw new Exception("Not enough space");
-		}
-		this.add(element.toString().getBytes());
-		this.elementsInBloomFilter++;
+	public BloomFilter(int bitSetSize, int expectedNumberOElements)
+			throws Exception {
+		this(bitSetSize, expectedNumberOElements, HashStrategies.XXHASH64);
 	}
 
-	public boolean contains(E element) {
-		return this.contains(element.toString().getBytes());
+	// smallest filter for expectedInsertions at the given false positive rate
+	public static <E> BloomFilter<E> create(long expectedInsertions,
+			double falsePositiveProbability, HashStrategy hashStrategy,
+			Funnel<? super E> funnel) throws Exception {
+		// bit set size taken as is rather than rebuilt from whole bits / element
+		FilterSizing sizing = FilterSizing.optimal(expectedInsertions,
+				falsePositiveProbability);
+		return new BloomFilter<E>(new BitSetStorage(sizing.getBitSetSize()),
+				expectedInsertions, sizing.getHashFunctionsCount(),
+				hashStrategy, funnel);
 	}
 
-	public void clear() {
-		this.elementsInBloomFilter = 0;
-		this.bitset.clear();
+	public static <E> BloomFilter<E> create(long expectedInsertions,
+			double falsePositiveProbability, HashStrategy hashStrategy)
+			throws Exception {
+		return create(expectedInsertions, falsePositiveProbability,
+				hashStrategy, Funnels.TO_STRING);
 	}
 
-	public double expectedFalsePositiveProbability() {
-		return getFalsePositiveProbability(this.expectedNumberOfElements);
+	public static <E> BloomFilter<E> create(long expectedInsertions,
+			double falsePositiveProbability) throws Exception {
+		return create(expectedInsertions, falsePositiveProbability,
+				HashStrategies.XXHASH64);
 	}
 
-	public double getFalsePositiveProbability(double numberOfElements) {
-		// (1 - e^(-k * n / m)) ^ k
-		return Math
-				.pow((1 - Math.exp(-this.getHashFunctionsCount()
-						* (double) numberOfElements / (double) this.bitSetSize)),
-						this.getHashFunctionsCount());
+	// empty filter of the same shape
+	private BloomFilter<E> emptyCopy() throws Exception {
+		return new BloomFilter<E>(new BitSetStorage(this.getBitSetSize()),
+				this.expectedNumberOfElements(), this.getHashFunctionsCount(),
+				this.getHashStrategy(), this.getFunnel());
 	}
 
-	public double getFalsePositiveProbability() {
-		return getFalsePositiveProbability(this.elementsInBloomFilter);
+	/*
+	 * Splits the elements across the pool, every worker thread fills its own
+	 * partial filter and the partials are OR-ed together at the end. The
+	 * result is the same as adding the elements one by one.
+	 */
+	public static <E> BloomFilter<E> buildParallel(
+			Spliterator<? extends E> elements, int bitsPerElement,
+			int expectedNumberOElements, int hashFuncs,
+			HashStrategy hashStrategy, ForkJoinPool pool) throws Exception {
+		BloomFilter<E> bf = new BloomFilter<>(bitsPerElement,
+				expectedNumberOElements, hashFuncs, hashStrategy);
+		Map<Thread, BloomFilter<E>> partials = new ConcurrentHashMap<>();
+		long threshold = Math.max(1024, elements.estimateSize()
+				/ (pool.getParallelism() * 4L));
+		pool.invoke(new ParallelFill<>(bf, partials, elements, threshold));
+		for (BloomFilter<E> partial : partials.values()) {
+			bf.merge(partial);
+		}
+		if (bf.elementsCount() > bf.expectedNumberOfElements()) {
+			throw new Exception("Not enough space");
+		}
+		return bf;
 	}
 
-	public int elementsCount() {
-		return this.elementsInBloomFilter;
+	public static <E> BloomFilter<E> buildParallel(
+			Collection<? extends E> elements, int bitsPerElement,
+			int expectedNumberOElements, int hashFuncs,
+			HashStrategy hashStrategy) throws Exception {
+		return buildParallel(elements.spliterator(), bitsPerElement,
+				expectedNumberOElements, hashFuncs, hashStrategy,
+				ForkJoinPool.commonPool());
 	}
 
-	public int getHashFunctionsCount() {
-		return this.hashFuncs;
+	public static <E> BloomFilter<E> buildParallel(
+			Collection<? extends E> elements, int bitsPerElement,
+			int expectedNumberOElements, int hashFuncs) throws Exception {
+		return buildParallel(elements, bitsPerElement,
+				expectedNumberOElements, hashFuncs, HashStrategies.XXHASH64);
 	}
 
-	public int getBitPerElement() {
-		return this.bitPerElement;
-	}
+	private static final class ParallelFill<E> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
 
-	@Override
-	public boolean equals(Object obj) {
-		if (obj == null) {
-			return false;
-		}
-		if (getClass() != obj.getClass()) {
-			return false;
-		}
-		@SuppressWarnings("unchecked")
-		BloomFilter<E> other = (BloomFilter<E>) obj;
-		if (this.expectedNumberOfElements != other.expectedNumberOfElements) {
-			return false;
-		}
-		if (this.bitPerElement != other.bitPerElement) {
-			return false;
-		}
-		if (this.hashFuncs != other.hashFuncs) {
-			return false;
-		}
-		if (this.bitSetSize != other.bitSetSize) {
-			return false;
+		private final BloomFilter<E> shape;
+		private final Map<Thread, BloomFilter<E>> partials;
+		private final Spliterator<? extends E> elements;
+		private final long threshold;
+
+		ParallelFill(BloomFilter<E> shape,
+				Map<Thread, BloomFilter<E>> partials,
+				Spliterator<? extends E> elements, long threshold) {
+			this.shape = shape;
+			this.partials = partials;
+			this.elements = elements;
+			this.threshold = threshold;
 		}
-		if (this.elementsInBloomFilter != other.elementsInBloomFilter) {
-			return false;
+
+		@Override
+		protected void compute() {
+			Spliterator<? extends E> split;
+			if (this.elements.estimateSize() > this.threshold
+					&& (split = this.elements.trySplit()) != null) {
+				invokeAll(new ParallelFill<>(this.shape, this.partials, split,
+						this.threshold), new ParallelFill<>(this.shape,
+						this.partials, this.elements, this.threshold));
+				return;
+			}
+			BloomFilter<E> partial = this.partials.get(Thread.currentThread());
+			if (partial == null) {
+				try {
+					partial = this.shape.emptyCopy();
+				} catch (Exception e) {
+					// the shape was accepted already, a copy of it cannot fail
+					throw new IllegalStateException(e);
+				}
+				this.partials.put(Thread.currentThread(), partial);
+			}
+			this.elements.forEachRemaining(partial::addUnchecked);
 		}
-		if (this.bitset != other.bitset
-				&& (this.bitset == null || !this.bitset.equals(other.bitset))) {
-			return false;
+	}
+
+	private static void checkHeader(FilterHeader header) throws Exception {
+		if (header.getBitSetSize() > Integer.MAX_VALUE
+				|| header.getExpectedNumberOfElements() > Integer.MAX_VALUE
+				|| header.getElementsCount() > header
+						.getExpectedNumberOfElements()) {
+			throw new Exception("Bloom filter does not fit this format");
 		}
-		return true;
-	}
-
-	@Override
-	public int hashCode() {
-		int hash = 7;
-		hash = 31 * hash + (this.bitset != null ? this.bitset.hashCode() : 0);
-		hash = 31 * hash + this.bitPerElement;
-		hash = 31 * hash + this.expectedNumberOfElements;
-		hash = 31 * hash + this.bitSetSize;
-		hash = 31 * hash + this.hashFuncs;
-		return hash;
+	}
+
+	public static <E> BloomFilter<E> readFrom(ReadableByteChannel channel)
+			throws Exception {
+		FilterHeader header = FilterFormat.readHeader(channel);
+		checkHeader(header);
+		BloomFilter<E> bf = new BloomFilter<>(header);
+		bf.readBody(channel, header);
+		return bf;
+	}
+
+	// reads from the buffer's position and leaves it after the filter
+	public static <E> BloomFilter<E> readFrom(ByteBuffer buffer)
+			throws Exception {
+		FilterHeader header = FilterFormat.readHeader(buffer);
+		checkHeader(header);
+		BloomFilter<E> bf = new BloomFilter<>(header);
+		bf.readBody(buffer, header);
+		return bf;
+	}
+
+	/*
+	 * Read-only copy answering contains on the compressed bits, see
+	 * CompressedBitmap; a fresh or cleared filter shrinks to a few bytes per
+	 * 65536 bits.
+	 */
+	public CompressedBloomFilter<E> compress() throws Exception {
+		return new CompressedBloomFilter<E>(this.header(),
+				CompressedBitmap.encode(this.toLongArray(),
+						this.getBitSetSize()), this.getFunnel());
+	}
+
+	public void writeCompressedTo(WritableByteChannel channel)
+			throws Exception {
+		this.compress().writeTo(channel);
+	}
+
+	public static <E> BloomFilter<E> readCompressedFrom(
+			ReadableByteChannel channel) throws Exception {
+		return decompress(CompressedBloomFilter.readFrom(channel));
+	}
+
+	// reads from the buffer's position and leaves it after the filter
+	public static <E> BloomFilter<E> readCompressedFrom(ByteBuffer buffer)
+			throws Exception {
+		return decompress(CompressedBloomFilter.readFrom(buffer));
+	}
+
+	private static <E> BloomFilter<E> decompress(
+			CompressedBloomFilter<?> compressed) throws Exception {
+		FilterHeader header = compressed.getHeader();
+		checkHeader(header);
+		long[] words = new long[(int) header.getWordCount()];
+		compressed.getBits().decode(words);
+		BloomFilter<E> bf = new BloomFilter<>(header);
+		bf.getStorage().setWords(0, words, 0, words.length);
+		return bf;
+	}
+
+	public BloomFilter<E> copy() throws Exception {
+		BloomFilter<E> copy = this.emptyCopy();
+		copy.merge(this);
+		return copy;
+	}
+
+	// immutable copy for lock-free readers, see PublishedBloomFilter
+	public FilterSnapshot<E> snapshot() throws Exception {
+		return FilterSnapshot.of(this, this.getFunnel());
+	}
+
+	public static <E> BloomFilter<E> union(BloomFilter<E> first,
+			BloomFilter<E> second) throws Exception {
+		BloomFilter<E> result = first.copy();
+		result.union(second);
+		return result;
+	}
+
+	public static <E> BloomFilter<E> intersection(BloomFilter<E> first,
+			BloomFilter<E> second) throws Exception {
+		BloomFilter<E> result = first.copy();
+		result.intersect(second);
+		return result;
 	}
 }
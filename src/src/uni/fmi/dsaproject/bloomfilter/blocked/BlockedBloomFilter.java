@@ -0,0 +1,211 @@
+package src.uni.fmi.dsaproject.bloomfilter.blocked;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import src.uni.fmi.dsaproject.bloomfilter.Filter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+
+/*
+ * Blocked bloom filter: the first hash selects a 512-bit block (one 64-byte
+ * cache line) and all k bits of an element are set inside that block, so a
+ * lookup costs a single cache miss instead of k.
+ */
+public class BlockedBloomFilter<E> implements Filter<E> {
+	public static final int BLOCK_BITS = 512;
+	private static final int BLOCK_WORDS = BLOCK_BITS / 64;
+	// 9-bit positions that fit in one 64-bit hash
+	private static final int BITS_PER_HASH = 7;
+
+	private long[] words;
+	private int blockCount;
+	private int hashFuncs;
+	private int bitPerElement;
+	private int expectedNumberOfElements;
+	private int elementsInBloomFilter;
+	private long bitSetSize;
+	private HashStrategy hashStrategy;
+
+	private void add(byte[] data) {
+		long hash1 = this.hashStrategy.hash(data, 0, data.length);
+		int base = (int) ((hash1 & Long.MAX_VALUE) % this.blockCount)
+				* BLOCK_WORDS;
+		// double hashing modulo 512 correlates the bits too much, so every
+		// position takes its own 9 bits from a stream of remixed hashes
+		long seed = hash1;
+		long bits = 0;
+		for (int i = 0; i < this.getHashFunctionsCount(); i++) {
+			if (i % BITS_PER_HASH == 0) {
+				seed = HashStrategies.secondHash(seed);
+				bits = seed;
+			}
+			int bit = (int) bits & (BLOCK_BITS - 1);
+			bits >>>= 9;
+			this.words[base + (bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	private boolean contains(byte[] data) {
+		long hash1 = this.hashStrategy.hash(data, 0, data.length);
+		int base = (int) ((hash1 & Long.MAX_VALUE) % this.blockCount)
+				* BLOCK_WORDS;
+		long seed = hash1;
+		long bits = 0;
+		for (int i = 0; i < this.getHashFunctionsCount(); i++) {
+			if (i % BITS_PER_HASH == 0) {
+				seed = HashStrategies.secondHash(seed);
+				bits = seed;
+			}
+			int bit = (int) bits & (BLOCK_BITS - 1);
+			bits >>>= 9;
+			if ((this.words[base + (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public BlockedBloomFilter(int bitsPerElement, int expectedNumberOElements,
+			int hashFuncs, HashStrategy hashStrategy) throws Exception {
+		// rounded up to whole blocks, at least one
+		long blocks = Math.max(1, (expectedNumberOElements
+				* (long) bitsPerElement + BLOCK_BITS - 1) / BLOCK_BITS);
+		if (blocks > (Integer.MAX_VALUE - 8) / BLOCK_WORDS) {
+			throw new Exception("Bit set size too large");
+		}
+		this.blockCount = (int) blocks;
+		this.bitSetSize = blocks * BLOCK_BITS;
+		this.bitPerElement = bitsPerElement;
+		this.expectedNumberOfElements = expectedNumberOElements;
+		this.hashFuncs = hashFuncs;
+		this.elementsInBloomFilter = 0;
+		this.words = new long[this.blockCount * BLOCK_WORDS];
+		this.hashStrategy = hashStrategy;
+	}
+
+	public BlockedBloomFilter(int bitsPerElement, int expectedNumberOElements,
+			int hashFuncs) throws Exception {
+		this(bitsPerElement, expectedNumberOElements, hashFuncs,
+				HashStrategies.XXHASH64);
+	}
+
+	public BlockedBloomFilter(int bitSetSize, int expectedNumberOElements)
+			throws Exception {
+		this(bitSetSize / expectedNumberOElements, expectedNumberOElements,
+				(int) Math.round((bitSetSize / expectedNumberOElements)
+						* Math.log(2.0)));
+	}
+
+	public void add(E element) throws Exception {
+		if (this.elementsInBloomFilter == this.expectedNumberOfElements) {
+			throw new Exception("Not enough space");
+		}
+		this.add(element.toString().getBytes(StandardCharsets.UTF_8));
+		this.elementsInBloomFilter++;
+	}
+
+	public boolean contains(E element) {
+		return this.contains(element.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	public void clear() {
+		this.elementsInBloomFilter = 0;
+		Arrays.fill(this.words, 0L);
+	}
+
+	public double expectedFalsePositiveProbability() {
+		return getFalsePositiveProbability(this.expectedNumberOfElements);
+	}
+
+	public double getFalsePositiveProbability(double numberOfElements) {
+		// sum over i of Poisson(i; B * n / m) * (1 - (1 - 1 / B)^(k * i))^k
+		// i.e. the standard formula for a block holding i elements, weighted
+		// by how likely a block is to hold that many
+		int k = this.getHashFunctionsCount();
+		double lambda = BLOCK_BITS * numberOfElements / this.bitSetSize;
+		if (lambda <= 0) {
+			return Math.pow(0, k);
+		}
+		int limit = (int) (lambda + 12 * Math.sqrt(lambda) + 20);
+		double logLambda = Math.log(lambda);
+		double logPoisson = -lambda;
+		double result = 0;
+		for (int i = 0; i <= limit; i++) {
+			if (i > 0) {
+				logPoisson += logLambda - Math.log(i);
+			}
+			double inBlock = Math.pow(1 - Math.pow(1 - 1.0 / BLOCK_BITS,
+					(double) k * i), k);
+			result += Math.exp(logPoisson) * inBlock;
+		}
+		return result;
+	}
+
+	public double getFalsePositiveProbability() {
+		return getFalsePositiveProbability(this.elementsInBloomFilter);
+	}
+
+	public int elementsCount() {
+		return this.elementsInBloomFilter;
+	}
+
+	public int getHashFunctionsCount() {
+		return this.hashFuncs;
+	}
+
+	public int getBitPerElement() {
+		return this.bitPerElement;
+	}
+
+	public long getBitSetSize() {
+		return this.bitSetSize;
+	}
+
+	public HashStrategy getHashStrategy() {
+		return this.hashStrategy;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		@SuppressWarnings("unchecked")
+		BlockedBloomFilter<E> other = (BlockedBloomFilter<E>) obj;
+		if (this.expectedNumberOfElements != other.expectedNumberOfElements) {
+			return false;
+		}
+		if (this.bitPerElement != other.bitPerElement) {
+			return false;
+		}
+		if (this.hashFuncs != other.hashFuncs) {
+			return false;
+		}
+		if (this.bitSetSize != other.bitSetSize) {
+			return false;
+		}
+		if (this.hashStrategy.getId() != other.hashStrategy.getId()) {
+			return false;
+		}
+		if (this.elementsInBloomFilter != other.elementsInBloomFilter) {
+			return false;
+		}
+		return Arrays.equals(this.words, other.words);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		hash = 31 * hash + Arrays.hashCode(this.words);
+		hash = 31 * hash + this.bitPerElement;
+		hash = 31 * hash + this.expectedNumberOfElements;
+		hash = 31 * hash + Long.hashCode(this.bitSetSize);
+		hash = 31 * hash + this.hashFuncs;
+		hash = 31 * hash + this.hashStrategy.getId();
+		return hash;
+	}
+}
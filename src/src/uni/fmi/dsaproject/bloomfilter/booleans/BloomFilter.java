@@ -1,177 +1,116 @@
 package src.uni.fmi.dsaproject.bloomfilter.booleans;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-
-public class BloomFilter<E> {
-
-	private boolean[] bitset;
-	private int hashFuncs;
-	private int elementsInBloomFilter;
-	private int bitsPerElement;
-	private int expectedNumberOfElements;
-	private int bitSetSize;
-	private MessageDigest digestFunction;
-
-	private long[] createHashes(byte[] data, int hashes) {
-		long[] result = new long[hashes];
-		int k = 0;
-		byte salt = 0;
-		while (k < hashes) {
-			byte[] digest;
-			synchronized (this.digestFunction) {
-				this.digestFunction.update(salt);
-				salt++;
-				digest = this.digestFunction.digest(data);
-			}
-			for (int i = 0; i < digest.length / 4 && k < hashes; i++) {
-				int h = 0;
-				for (int j = (i * 4); j < (i * 4) + 4; j++) {
-					h <<= 8;
-					h |= ((int) digest[j]) & 0xFF;
-				}
-				result[k] = h;
-				k++;
-			}
-		}
-		return result;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import src.uni.fmi.dsaproject.bloomfilter.core.AbstractBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnel;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnels;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterFormat;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterHeader;
+import src.uni.fmi.dsaproject.bloomfilter.storage.BooleanArrayStorage;
+
+// the core filter on a boolean[], see AbstractBloomFilter
+public class BloomFilter<E> extends AbstractBloomFilter<E> {
+
+	private BloomFilter(BooleanArrayStorage storage,
+			long expectedNumberOElements, int hashFuncs,
+			HashStrategy hashStrategy, Funnel<? super E> funnel)
+			throws Exception {
+		super(storage, expectedNumberOElements, hashFuncs, hashStrategy, funnel);
+	}
 
+	public BloomFilter(int bitsPerElement, int expectedNumberOElements,
+			int hashFuncs, HashStrategy hashStrategy, Funnel<? super E> funnel)
+			throws Exception {
+		this(new BooleanArrayStorage((long) expectedNumberOElements
+				* bitsPerElement), expectedNumberOElements, hashFuncs,
+				hashStrategy, funnel);
 	}
 
-	private void add(byte[] data) {
-		long[] hashes = this.createHashes(data, this.getHashFunctionsCount());
-		int index;
-		for (long iHash : hashes) {
-			index = (int) (Math.abs(iHash) % this.bitSetSize);
-			this.bitset[index] = true;
-		}
+	public BloomFilter(int bitsPerElement, int expectedNumberOElements,
+			int hashFuncs, HashStrategy hashStrategy) throws Exception {
+		this(bitsPerElement, expectedNumberOElements, hashFuncs, hashStrategy,
+				Funnels.TO_STRING);
 	}
 
-	private boolean contains(byte[] data) {
-		long[] hashes = this.createHashes(data, this.getHashFunctionsCount());
-		for (long iHash : hashes) {
-			if (!this.bitset[(int) (Math.abs(iHash) % this.bitSetSize)] == true) {
-				return false;
-			}
-		}
-		return true;
+	// empty filter of the serialized shape with its count, see FilterFormat
+	private BloomFilter(FilterHeader header) throws Exception {
+		this(new BooleanArrayStorage(header.getBitSetSize()), header
+				.getExpectedNumberOfElements(),
+				header.getHashFunctionsCount(), HashStrategies.forId(header
+						.getHashStrategyId()), Funnels.TO_STRING);
+		this.setElementsCount(header.getElementsCount());
 	}
 
 	public BloomFilter(int bitsPerElement, int expectedNumberOElements,
 			int hashFuncs) throws Exception {
-		this.bitSetSize = (int) Math.ceil(expectedNumberOElements
-				* bitsPerElement);
-		this.bitsPerElement = bitsPerElement;
-		this.expectedNumberOfElements = expectedNumberOElements;
-		this.hashFuncs = hashFuncs;
-		this.elementsInBloomFilter = 0;
-		this.bitset = new boolean[bitSetSize];
-		try {
-			this.digestFunction = MessageDigest.getInstance("MD5");
-		} catch (NoSuchAlgorithmException e) {
-			throw new Exception("MD5 could not be found");
-		}
+		this(bitsPerElement, expectedNumberOElements, hashFuncs,
+				HashStrategies.XXHASH64);
 	}
 
-	public BloomFilter(int bitSetSize, int expectedNumberOElements)
-			throws Exception {
+	public BloomFilter(int bitSetSize, int expectedNumberOElements,
+			HashStrategy hashStrategy) throws Exception {
 		this((bitSetSize / expectedNumberOElements), expectedNumberOElements,
 				(int) Math.round((bitSetSize / expectedNumberOElements)
-						* Math.log(2.0)));
+						* Math.log(2.0)), hashStrategy);
 	}
 
-	public void add(E element) throws Exception {
-		if (this.elementsInBloomFilter == this.expectedNumberOfElements) {
-			throw new Exception("Not enough space");
-		}
-		this.add(element.toString().getBytes());
-		this.elementsInBloomFilter++;
-	}
-
-	public boolean contains(E element) {
-		return this.contains(element.toString().getBytes());
-	}
-
-	public void clear() {
-		this.elementsInBloomFilter = 0;
-		this.bitset = new boolean[this.bitSetSize];
-	}
-
-	public double expectedFalsePositiveProbability() {
-		return getFalsePositiveProbability(this.expectedNumberOfElements);
-	}
-
-	public double getFalsePositiveProbability(double numberOfElements) {
-		// (1 - e^(-k * n / m)) ^ k
-		return Math
-				.pow((1 - Math.exp(-this.getHashFunctionsCount()
-						* (double) numberOfElements / (double) this.bitSetSize)),
-						this.getHashFunctionsCount());
-
-	}
-
-	public double getFalsePositiveProbability() {
-		return getFalsePositiveProbability(this.elementsInBloomFilter);
-	}
-
-	public int getBitPerElement() {
-		return this.bitsPerElement;
-	}
-
-	public int elementsCount() {
-		return this.elementsInBloomFilter;
+	public BloomFilter(int bitSetSize, int expectedNumberOElements)
+			throws Exception {
+		this(bitSetSize, expectedNumberOElements, HashStrategies.XXHASH64);
 	}
 
-	public int getHashFunctionsCount() {
-		return this.hashFuncs;
+	private static void checkHeader(FilterHeader header) throws Exception {
+		if (header.getBitSetSize() > Integer.MAX_VALUE
+				|| header.getExpectedNumberOfElements() > Integer.MAX_VALUE
+				|| header.getElementsCount() > header
+						.getExpectedNumberOfElements()) {
+			throw new Exception("Bloom filter does not fit this format");
+		}
 	}
 
-	public int getBitSetSize() {
-		return bitSetSize;
+	public static <E> BloomFilter<E> readFrom(ReadableByteChannel channel)
+			throws Exception {
+		FilterHeader header = FilterFormat.readHeader(channel);
+		checkHeader(header);
+		BloomFilter<E> bf = new BloomFilter<>(header);
+		bf.readBody(channel, header);
+		return bf;
 	}
 
-	@Override
-	public boolean equals(Object obj) {
-		if (obj == null) {
-			return false;
-		}
-		if (getClass() != obj.getClass()) {
-			return false;
-		}
-		@SuppressWarnings("unchecked")
-		BloomFilter<E> other = (BloomFilter<E>) obj;
-		if (this.expectedNumberOfElements != other.expectedNumberOfElements) {
-			return false;
-		}
-		if (this.bitsPerElement != other.bitsPerElement) {
-			return false;
-		}
-
-		if (this.hashFuncs != other.hashFuncs) {
-			return false;
-		}
-		if (this.bitSetSize != other.bitSetSize) {
-			return false;
-		}
-		if (this.elementsInBloomFilter != other.elementsInBloomFilter) {
-			return false;
-		}
-		if (this.bitset != other.bitset
-				&& (this.bitset == null || !this.bitset.equals(other.bitset))) {
-			return false;
-		}
-		return true;
+	// reads from the buffer's position and leaves it after the filter
+	public static <E> BloomFilter<E> readFrom(ByteBuffer buffer)
+			throws Exception {
+		FilterHeader header = FilterFormat.readHeader(buffer);
+		checkHeader(header);
+		BloomFilter<E> bf = new BloomFilter<>(header);
+		bf.readBody(buffer, header);
+		return bf;
+	}
+
+	public BloomFilter<E> copy() throws Exception {
+		BloomFilter<E> copy = new BloomFilter<E>(new BooleanArrayStorage(
+				this.getBitSetSize()), this.expectedNumberOfElements(),
+				this.getHashFunctionsCount(), this.getHashStrategy(),
+				this.getFunnel());
+		copy.merge(this);
+		return copy;
+	}
+
+	public static <E> BloomFilter<E> union(BloomFilter<E> first,
+			BloomFilter<E> second) throws Exception {
+		BloomFilter<E> result = first.copy();
+		result.union(second);
+		return result;
 	}
 
-	@Override
-	public int hashCode() {
-		int hash = 7;
-		hash = 31 * hash + (this.bitset != null ? this.bitset.hashCode() : 0);
-		hash = 31 * hash + (int) this.bitsPerElement;
-		hash = 31 * hash + this.expectedNumberOfElements;
-		hash = 31 * hash + this.bitSetSize;
-		hash = 31 * hash + this.hashFuncs;
-		return hash;
+	public static <E> BloomFilter<E> intersection(BloomFilter<E> first,
+			BloomFilter<E> second) throws Exception {
+		BloomFilter<E> result = first.copy();
+		result.intersect(second);
+		return result;
 	}
-
 }
@@ -9,12 +9,6 @@ public class BloomFilterExample {
 	private static List<String> existingElements;
 	private static List<String> nonExistingElements;
 
-	public static void printStat(long start, long end) {
-		double diff = (end - start) / 1000.0;
-		System.out
-				.println(diff + "s, " + (elementCount / diff) + " elements/s");
-	}
-
 	private static void generateElements() {
 		final Random r = new Random();
 		// Generate elements first
@@ -33,62 +27,6 @@ public class BloomFilterExample {
 		}
 	}
 
-	private static void testPerformanceWithHashes(int index) throws Exception {
-		elementCount /= index;
-		System.out.println("Testing performance with " + elementCount
-				+ " elements and many hashing");
-		BloomFilter<String> bf = new BloomFilter<String>(1_000_000,
-				elementCount);
-		testPerformance(bf);
-	}
-
-	private static void testPerformanceWithElements(int index) throws Exception {
-		elementCount *= index;
-		System.out.println("Testing performance with " + elementCount
-				+ " elements");
-		BloomFilter<String> bf = new BloomFilter<String>(10000 * 5 * index,
-				elementCount);
-		testPerformance(bf);
-	}
-
-	private static void testPerformance(BloomFilter<String> bf)
-			throws Exception {
-
-		generateElements();
-		System.out.println("Hash functions: " + bf.getHashFunctionsCount());
-
-		System.out.println();
-
-		// Add elements
-		System.out.print("add(): ");
-		long start_add = System.currentTimeMillis();
-		for (int i = 0; i < elementCount; i++) {
-			bf.add(existingElements.get(i));
-		}
-		long end_add = System.currentTimeMillis();
-		printStat(start_add, end_add);
-
-		// Check for existing elements with contains()
-		System.out.print("contains(), existing: ");
-		long start_contains = System.currentTimeMillis();
-		for (int i = 0; i < elementCount; i++) {
-			bf.contains(existingElements.get(i));
-		}
-		long end_contains = System.currentTimeMillis();
-		printStat(start_contains, end_contains);
-
-		// Check for nonexisting elements with contains()
-		System.out.print("contains(), nonexisting: ");
-		long start_ncontains = System.currentTimeMillis();
-		for (int i = 0; i < elementCount; i++) {
-			bf.contains(nonExistingElements.get(i));
-		}
-		long end_ncontains = System.currentTimeMillis();
-		printStat(start_ncontains, end_ncontains);
-
-		System.out.println();
-	}
-
 	public static void main(String[] args) throws Exception {
 
 		BloomFilter<String> bf = new BloomFilter<>(1000, 100);
@@ -219,14 +157,6 @@ public class BloomFilterExample {
 			System.out.println("false");
 		}
 		System.out.println();
-		
-		for (int i = 1; i <= 100; i *= 10) {
-			testPerformanceWithElements(i);
-		}
-		elementCount = 500;
-		for (int i = 1; i <= 100; i *= 5) {
-			testPerformanceWithHashes(i);
-		}
 
 		System.out.println("bloom filter is cleared");
 
@@ -0,0 +1,422 @@
+package src.uni.fmi.dsaproject.bloomfilter.compressed;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+/*
+ * Bit words compressed Roaring style: the bits are cut into chunks of 65536
+ * and each chunk is stored as whichever container is smallest,
+ *
+ *   RAW     the chunk's 1024 words
+ *   SPARSE  the sorted 16-bit offsets of its set bits
+ *   RUNS    sorted (start, length - 1) pairs of 16-bit values
+ *
+ * so an empty or cleared filter costs a few bytes per chunk, a filling one
+ * a sorted index list, and a filter past ~6% fill the raw words. get() reads
+ * the encoded bytes in place (binary search in SPARSE and RUNS), so a
+ * received or mapped buffer can be queried without decoding it.
+ *
+ * Binary format, all values little-endian:
+ *
+ *   header (24 bytes)
+ *     0  int  magic
+ *     4  int  version
+ *     8  long bitSize
+ *    16  int  chunk count
+ *    20  int  payload size in bytes
+ *   directory, per chunk
+ *     int  payload offset of the container, a multiple of 8
+ *     int  type << 24 | number of offsets, runs or words
+ *   payload
+ *     the containers
+ *   trailer
+ *     long CRC32 of everything before it
+ */
+public final class CompressedBitmap {
+	public static final int MAGIC = 0x424C4D43; // "BLMC"
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 24;
+	public static final int CHUNK_BITS = 1 << 16;
+	public static final int CHUNK_WORDS = CHUNK_BITS >>> 6;
+
+	public static final int RAW = 0;
+	public static final int SPARSE = 1;
+	public static final int RUNS = 2;
+
+	private final ByteBuffer buffer;
+	private final long bitSize;
+	private final int chunkCount;
+	private final int payload;
+
+	private CompressedBitmap(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.bitSize = buffer.getLong(8);
+		this.chunkCount = buffer.getInt(16);
+		this.payload = HEADER_SIZE + this.chunkCount * 8;
+	}
+
+	private static int chunkCount(long bitSize) {
+		return (int) ((bitSize + CHUNK_BITS - 1) >>> 16);
+	}
+
+	private static int chunkWords(int wordCount, int chunk) {
+		return Math.min(CHUNK_WORDS, wordCount - chunk * CHUNK_WORDS);
+	}
+
+	// number of maximal runs of set bits in words[from, to)
+	private static int runs(long[] words, int from, int to) {
+		int runs = 0;
+		long carry = 0;
+		for (int i = from; i < to; i++) {
+			long word = words[i];
+			runs += Long.bitCount(word & ~((word << 1) | carry));
+			carry = word >>> 63;
+		}
+		return runs;
+	}
+
+	private static int cardinality(long[] words, int from, int to) {
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			count += Long.bitCount(words[i]);
+		}
+		return count;
+	}
+
+	// first bit at or after bit with the given value in words[from, to)
+	private static int next(long[] words, int from, int to, int bit,
+			boolean set) {
+		int i = from + (bit >>> 6);
+		if (i >= to) {
+			return (to - from) << 6;
+		}
+		long word = (set ? words[i] : ~words[i]) & (-1L << bit);
+		while (word == 0) {
+			if (++i == to) {
+				return (to - from) << 6;
+			}
+			word = set ? words[i] : ~words[i];
+		}
+		return ((i - from) << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/*
+	 * Encodes the first bitSize bits of the words; bits past bitSize must be
+	 * zero. Per chunk the smallest container wins, ties go to SPARSE, then
+	 * RUNS, so empty chunks are zero length SPARSE containers.
+	 */
+	public static CompressedBitmap encode(long[] words, long bitSize)
+			throws Exception {
+		if (bitSize < 0 || (bitSize + 63) >>> 6 != words.length) {
+			throw new Exception("Word count does not match the bit size");
+		}
+		int chunks = chunkCount(bitSize);
+		int[] types = new int[chunks];
+		int[] counts = new int[chunks];
+		long payloadSize = 0;
+		for (int c = 0; c < chunks; c++) {
+			int from = c * CHUNK_WORDS;
+			int to = from + chunkWords(words.length, c);
+			long raw = (to - from) * 8L;
+			long sparse = cardinality(words, from, to) * 2L;
+			long runs = runs(words, from, to) * 4L;
+			if (sparse <= runs && sparse <= raw) {
+				types[c] = SPARSE;
+				counts[c] = (int) (sparse / 2);
+			} else if (runs <= raw) {
+				types[c] = RUNS;
+				counts[c] = (int) (runs / 4);
+			} else {
+				types[c] = RAW;
+				counts[c] = to - from;
+			}
+			payloadSize += (Math.min(sparse, Math.min(runs, raw)) + 7) & ~7L;
+		}
+		long size = HEADER_SIZE + chunks * 8L + payloadSize + 8;
+		if (size > Integer.MAX_VALUE) {
+			throw new Exception("Bit set size too large");
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) size).order(
+				ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putLong(bitSize);
+		buffer.putInt(chunks);
+		buffer.putInt((int) payloadSize);
+		int base = HEADER_SIZE + chunks * 8;
+		int offset = 0;
+		for (int c = 0; c < chunks; c++) {
+			buffer.putInt(HEADER_SIZE + c * 8, offset);
+			buffer.putInt(HEADER_SIZE + c * 8 + 4, types[c] << 24 | counts[c]);
+			int from = c * CHUNK_WORDS;
+			int to = from + chunkWords(words.length, c);
+			int position = base + offset;
+			if (types[c] == RAW) {
+				for (int i = from; i < to; i++, position += 8) {
+					buffer.putLong(position, words[i]);
+				}
+			} else if (types[c] == SPARSE) {
+				for (int i = from; i < to; i++) {
+					long word = words[i];
+					while (word != 0) {
+						buffer.putChar(position, (char) (((i - from) << 6) + Long
+								.numberOfTrailingZeros(word)));
+						position += 2;
+						word &= word - 1;
+					}
+				}
+			} else {
+				int end = (to - from) << 6;
+				int start = next(words, from, to, 0, true);
+				while (start < end) {
+					int stop = next(words, from, to, start, false);
+					buffer.putChar(position, (char) start);
+					buffer.putChar(position + 2, (char) (stop - start - 1));
+					position += 4;
+					start = next(words, from, to, stop, true);
+				}
+			}
+			offset = (position - base + 7) & ~7;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, (int) size - 8);
+		buffer.putLong((int) size - 8, crc.getValue());
+		buffer.clear();
+		return new CompressedBitmap(buffer);
+	}
+
+	/*
+	 * Checks and wraps an encoded bitmap at the buffer's position without
+	 * copying it; the position is moved past the bitmap. The buffer must not
+	 * change afterwards.
+	 */
+	public static CompressedBitmap wrap(ByteBuffer buffer) throws Exception {
+		ByteBuffer in = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		if (in.remaining() < HEADER_SIZE || in.getInt(0) != MAGIC) {
+			throw new Exception("Not a compressed bitmap");
+		}
+		if (in.getInt(4) != VERSION) {
+			throw new Exception("Unsupported compressed bitmap version: "
+					+ in.getInt(4));
+		}
+		long bitSize = in.getLong(8);
+		int chunks = in.getInt(16);
+		int payloadSize = in.getInt(20);
+		if (bitSize < 0 || chunks != chunkCount(bitSize) || payloadSize < 0) {
+			throw new Exception("Corrupted compressed bitmap");
+		}
+		long size = HEADER_SIZE + chunks * 8L + payloadSize + 8;
+		if (in.remaining() < size) {
+			throw new Exception("Truncated compressed bitmap");
+		}
+		in.limit((int) size);
+		ByteBuffer checked = in.duplicate();
+		checked.limit((int) size - 8);
+		CRC32 crc = new CRC32();
+		crc.update(checked);
+		if (in.getLong((int) size - 8) != crc.getValue()) {
+			throw new Exception("Checksum mismatch");
+		}
+		CompressedBitmap bitmap = new CompressedBitmap(in.slice().order(
+				ByteOrder.LITTLE_ENDIAN));
+		bitmap.check(payloadSize);
+		buffer.position(buffer.position() + (int) size);
+		return bitmap;
+	}
+
+	// containers must fit the payload and hold sorted, in range values
+	private void check(int payloadSize) throws Exception {
+		int wordCount = (int) ((this.bitSize + 63) >>> 6);
+		for (int c = 0; c < this.chunkCount; c++) {
+			int offset = this.buffer.getInt(HEADER_SIZE + c * 8);
+			int type = this.type(c);
+			int count = this.count(c);
+			int bits = chunkWords(wordCount, c) << 6;
+			long length = type == RAW ? count * 8L : type == SPARSE ? count * 2L
+					: count * 4L;
+			if (offset < 0 || (offset & 7) != 0
+					|| offset + length > payloadSize || type > RUNS
+					|| (type == RAW && count != bits >>> 6)) {
+				throw new Exception("Corrupted compressed bitmap");
+			}
+			int position = this.payload + offset;
+			int previous = -1;
+			for (int i = 0; i < count && type != RAW; i++) {
+				int first = type == SPARSE ? this.buffer.getChar(position + i
+						* 2) : this.buffer.getChar(position + i * 4);
+				int last = type == SPARSE ? first : first
+						+ this.buffer.getChar(position + i * 4 + 2);
+				if (first <= previous || last >= bits) {
+					throw new Exception("Corrupted compressed bitmap");
+				}
+				// adjacent runs would have been merged
+				previous = type == SPARSE ? last : last + 1;
+			}
+		}
+	}
+
+	private int type(int chunk) {
+		return this.buffer.getInt(HEADER_SIZE + chunk * 8 + 4) >>> 24;
+	}
+
+	private int count(int chunk) {
+		return this.buffer.getInt(HEADER_SIZE + chunk * 8 + 4) & 0xFFFFFF;
+	}
+
+	private int position(int chunk) {
+		return this.payload + this.buffer.getInt(HEADER_SIZE + chunk * 8);
+	}
+
+	public boolean get(long index) {
+		int chunk = (int) (index >>> 16);
+		int bit = (int) index & (CHUNK_BITS - 1);
+		int position = this.position(chunk);
+		int type = this.type(chunk);
+		if (type == RAW) {
+			return (this.buffer.getLong(position + (bit >>> 6) * 8) & (1L << bit)) != 0;
+		}
+		int low = 0;
+		int high = this.count(chunk) - 1;
+		if (type == SPARSE) {
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				int value = this.buffer.getChar(position + middle * 2);
+				if (value < bit) {
+					low = middle + 1;
+				} else if (value > bit) {
+					high = middle - 1;
+				} else {
+					return true;
+				}
+			}
+			return false;
+		}
+		// last run starting at or before bit
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (this.buffer.getChar(position + middle * 4) <= bit) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		if (high < 0) {
+			return false;
+		}
+		int start = this.buffer.getChar(position + high * 4);
+		return bit <= start + this.buffer.getChar(position + high * 4 + 2);
+	}
+
+	// decodes into words, which must hold exactly ceil(bitSize / 64) longs
+	public void decode(long[] words) throws Exception {
+		if (words.length != (this.bitSize + 63) >>> 6) {
+			throw new Exception("Word count does not match the bit size");
+		}
+		for (int c = 0; c < this.chunkCount; c++) {
+			int from = c * CHUNK_WORDS;
+			int to = from + chunkWords(words.length, c);
+			int position = this.position(c);
+			int count = this.count(c);
+			int type = this.type(c);
+			if (type == RAW) {
+				ByteBuffer raw = this.buffer.duplicate().order(
+						ByteOrder.LITTLE_ENDIAN);
+				raw.position(position);
+				raw.asLongBuffer().get(words, from, to - from);
+				continue;
+			}
+			for (int i = from; i < to; i++) {
+				words[i] = 0L;
+			}
+			if (type == SPARSE) {
+				for (int i = 0; i < count; i++) {
+					int bit = this.buffer.getChar(position + i * 2);
+					words[from + (bit >>> 6)] |= 1L << bit;
+				}
+			} else {
+				for (int i = 0; i < count; i++) {
+					int start = this.buffer.getChar(position + i * 4);
+					int end = start + this.buffer.getChar(position + i * 4 + 2);
+					setRange(words, from, start, end);
+				}
+			}
+		}
+	}
+
+	// sets bits [start, end] of the chunk starting at word from
+	private static void setRange(long[] words, int from, int start, int end) {
+		int first = from + (start >>> 6);
+		int last = from + (end >>> 6);
+		long firstMask = -1L << start;
+		long lastMask = -1L >>> (63 - (end & 63));
+		if (first == last) {
+			words[first] |= firstMask & lastMask;
+			return;
+		}
+		words[first] |= firstMask;
+		for (int i = first + 1; i < last; i++) {
+			words[i] = -1L;
+		}
+		words[last] |= lastMask;
+	}
+
+	public long[] toLongArray() throws Exception {
+		long[] words = new long[(int) ((this.bitSize + 63) >>> 6)];
+		this.decode(words);
+		return words;
+	}
+
+	// number of set bits, without decoding
+	public long cardinality() {
+		long count = 0;
+		for (int c = 0; c < this.chunkCount; c++) {
+			int position = this.position(c);
+			int type = this.type(c);
+			if (type == SPARSE) {
+				count += this.count(c);
+			} else if (type == RUNS) {
+				for (int i = 0; i < this.count(c); i++) {
+					count += this.buffer.getChar(position + i * 4 + 2) + 1;
+				}
+			} else {
+				for (int i = 0; i < this.count(c); i++) {
+					count += Long.bitCount(this.buffer.getLong(position + i * 8));
+				}
+			}
+		}
+		return count;
+	}
+
+	public long getBitSize() {
+		return this.bitSize;
+	}
+
+	public int chunkCount() {
+		return this.chunkCount;
+	}
+
+	// RAW, SPARSE or RUNS
+	public int containerType(int chunk) {
+		return this.type(chunk);
+	}
+
+	public int sizeInBytes() {
+		return this.buffer.capacity();
+	}
+
+	// a read-only view of the encoded bytes
+	public ByteBuffer toByteBuffer() {
+		return this.buffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer buffer = this.toByteBuffer();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package src.uni.fmi.dsaproject.bloomfilter.compressed;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnel;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnels;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterFormat;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterHeader;
+import src.uni.fmi.dsaproject.bloomfilter.sizing.FilterSizing;
+
+/*
+ * Read-only bloom filter answering contains straight from a CompressedBitmap,
+ * for shipping and serving mostly empty filters without inflating them. A
+ * lookup costs up to k binary searches instead of k array reads, so decode
+ * with BloomFilter.readCompressedFrom when the filter is hot or written to.
+ *
+ * File format: the FilterFormat header with FilterFormat.COMPRESSED_MAGIC
+ * followed by the CompressedBitmap, which carries its own checksum.
+ */
+public final class CompressedBloomFilter<E> {
+	private final FilterHeader header;
+	private final CompressedBitmap bits;
+	private final HashStrategy hashStrategy;
+	private final Funnel<? super E> funnel;
+
+	public CompressedBloomFilter(FilterHeader header, CompressedBitmap bits,
+			Funnel<? super E> funnel) throws Exception {
+		if (header.getBitSetSize() != bits.getBitSize()) {
+			throw new Exception("Bit set size does not match the bitmap");
+		}
+		this.header = header;
+		this.bits = bits;
+		this.hashStrategy = HashStrategies.forId(header.getHashStrategyId());
+		this.funnel = funnel;
+	}
+
+	private boolean contains(long hash1) {
+		long hash2 = HashStrategies.secondHash(hash1);
+		long bitSetSize = this.header.getBitSetSize();
+		for (int i = 0; i < this.header.getHashFunctionsCount(); i++) {
+			if (!this.bits.get(HashStrategies.index(hash1, hash2, i, bitSetSize))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public boolean contains(E element) {
+		return this.contains(this.funnel.hash(element, this.hashStrategy));
+	}
+
+	public boolean containsLong(long value) {
+		return this.contains(this.hashStrategy.hashLong(value));
+	}
+
+	public boolean containsInt(int value) {
+		return this.contains(this.hashStrategy.hashInt(value));
+	}
+
+	public boolean contains(byte[] data, int offset, int length) {
+		return this.contains(this.hashStrategy.hash(data, offset, length));
+	}
+
+	public boolean containsBytes(ByteBuffer buffer) {
+		return this.contains(this.hashStrategy.hash(buffer));
+	}
+
+	public double getFalsePositiveProbability() {
+		return FilterSizing.falsePositiveProbability(this.header
+				.getBitSetSize(), this.header.getHashFunctionsCount(),
+				this.header.getElementsCount());
+	}
+
+	public long elementsCount() {
+		return this.header.getElementsCount();
+	}
+
+	public long getBitSetSize() {
+		return this.header.getBitSetSize();
+	}
+
+	public int getHashFunctionsCount() {
+		return this.header.getHashFunctionsCount();
+	}
+
+	public HashStrategy getHashStrategy() {
+		return this.hashStrategy;
+	}
+
+	public FilterHeader getHeader() {
+		return this.header;
+	}
+
+	public CompressedBitmap getBits() {
+		return this.bits;
+	}
+
+	public int sizeInBytes() {
+		return FilterFormat.HEADER_SIZE + this.bits.sizeInBytes();
+	}
+
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(FilterFormat.HEADER_SIZE)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		FilterFormat.writeHeader(buffer, this.header,
+				FilterFormat.COMPRESSED_MAGIC);
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		this.bits.writeTo(channel);
+	}
+
+	// wraps the bitmap in place, see CompressedBitmap.wrap
+	public static <E> CompressedBloomFilter<E> readFrom(ByteBuffer buffer)
+			throws Exception {
+		FilterHeader header = FilterFormat.readHeader(buffer,
+				FilterFormat.COMPRESSED_MAGIC);
+		return new CompressedBloomFilter<E>(header, CompressedBitmap
+				.wrap(buffer), Funnels.TO_STRING);
+	}
+
+	public static <E> CompressedBloomFilter<E> readFrom(
+			ReadableByteChannel channel) throws Exception {
+		FilterHeader header = FilterFormat.readHeader(channel,
+				FilterFormat.COMPRESSED_MAGIC);
+		ByteBuffer start = ByteBuffer.allocate(CompressedBitmap.HEADER_SIZE)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, start);
+		long size = CompressedBitmap.HEADER_SIZE + start.getInt(16) * 8L
+				+ start.getInt(20) + 8;
+		if (start.getInt(16) < 0 || start.getInt(20) < 0
+				|| size > Integer.MAX_VALUE) {
+			throw new Exception("Corrupted compressed bitmap");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) size);
+		start.flip();
+		buffer.put(start);
+		readFully(channel, buffer);
+		buffer.flip();
+		return new CompressedBloomFilter<E>(header, CompressedBitmap
+				.wrap(buffer), Funnels.TO_STRING);
+	}
+
+	private static void readFully(ReadableByteChannel channel,
+			ByteBuffer buffer) throws Exception {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new Exception("Truncated bloom filter file");
+			}
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package src.uni.fmi.dsaproject.bloomfilter.concurrent;
+
+import src.uni.fmi.dsaproject.bloomfilter.core.AbstractBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnel;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnels;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.storage.AtomicLongArrayStorage;
+
+/*
+ * Thread-safe bloom filter: the core filter on an AtomicLongArrayStorage.
+ * Bits are set with a CAS loop, lookups are plain volatile reads and the
+ * element count is a LongAdder, so no add or contains ever takes a monitor.
+ * The capacity check is best effort, racing adds may overshoot it slightly,
+ * and clear() is not atomic with respect to concurrent adds.
+ */
+public class ConcurrentBloomFilter<E> extends AbstractBloomFilter<E> {
+
+	public ConcurrentBloomFilter(int bitsPerElement,
+			int expectedNumberOElements, int hashFuncs,
+			HashStrategy hashStrategy, Funnel<? super E> funnel)
+			throws Exception {
+		super(new AtomicLongArrayStorage((long) expectedNumberOElements
+				* bitsPerElement), expectedNumberOElements, hashFuncs,
+				hashStrategy, funnel);
+	}
+
+	public ConcurrentBloomFilter(int bitsPerElement,
+			int expectedNumberOElements, int hashFuncs,
+			HashStrategy hashStrategy) throws Exception {
+		this(bitsPerElement, expectedNumberOElements, hashFuncs, hashStrategy,
+				Funnels.TO_STRING);
+	}
+
+	public ConcurrentBloomFilter(int bitsPerElement,
+			int expectedNumberOElements, int hashFuncs) throws Exception {
+		this(bitsPerElement, expectedNumberOElements, hashFuncs,
+				HashStrategies.XXHASH64);
+	}
+
+	public ConcurrentBloomFilter(int bitSetSize, int expectedNumberOElements)
+			throws Exception {
+		this(bitSetSize / expectedNumberOElements, expectedNumberOElements,
+				(int) Math.round((bitSetSize / expectedNumberOElements)
+						* Math.log(2.0)));
+	}
+}
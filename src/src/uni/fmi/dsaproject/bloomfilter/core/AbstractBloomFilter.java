@@ -0,0 +1,482 @@
+package src.uni.fmi.dsaproject.bloomfilter.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import src.uni.fmi.dsaproject.bloomfilter.Filter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnel;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterFormat;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterHeader;
+import src.uni.fmi.dsaproject.bloomfilter.io.WordSink;
+import src.uni.fmi.dsaproject.bloomfilter.metrics.FilterMetrics;
+import src.uni.fmi.dsaproject.bloomfilter.metrics.MetricsSource;
+import src.uni.fmi.dsaproject.bloomfilter.sizing.FilterSizing;
+import src.uni.fmi.dsaproject.bloomfilter.storage.BitStorage;
+
+/*
+ * Hashing, capacity, probability and equality written once over a BitStorage.
+ * Subclasses decide which storage they run on; the filter is exactly as
+ * thread-safe as its storage (the element count is a LongAdder either way).
+ */
+public abstract class AbstractBloomFilter<E> implements Filter<E> {
+	private final BitStorage storage;
+	private final int hashFuncs;
+	private final long expectedNumberOfElements;
+	private final LongAdder elementsInBloomFilter;
+	private final HashStrategy hashStrategy;
+	private final Funnel<? super E> funnel;
+	private volatile FilterMetrics metrics;
+
+	protected AbstractBloomFilter(BitStorage storage,
+			long expectedNumberOElements, int hashFuncs,
+			HashStrategy hashStrategy, Funnel<? super E> funnel)
+			throws Exception {
+		if (expectedNumberOElements <= 0 || hashFuncs < 0) {
+			throw new Exception("Invalid bloom filter parameters");
+		}
+		this.storage = storage;
+		this.expectedNumberOfElements = expectedNumberOElements;
+		this.hashFuncs = hashFuncs;
+		this.elementsInBloomFilter = new LongAdder();
+		this.hashStrategy = hashStrategy;
+		this.funnel = funnel;
+	}
+
+	private long hash(E element) {
+		return this.funnel.hash(element, this.hashStrategy);
+	}
+
+	private void add(long hash1) {
+		long hash2 = HashStrategies.secondHash(hash1);
+		long bitSize = this.storage.bitSize();
+		for (int i = 0; i < this.hashFuncs; i++) {
+			this.storage.set(HashStrategies.index(hash1, hash2, i, bitSize));
+		}
+	}
+
+	private boolean contains(long hash1) {
+		long hash2 = HashStrategies.secondHash(hash1);
+		long bitSize = this.storage.bitSize();
+		for (int i = 0; i < this.hashFuncs; i++) {
+			if (!this.storage.get(HashStrategies.index(hash1, hash2, i, bitSize))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// with a thread-safe storage racing adds may overshoot the check slightly
+	private void insert(long hash1) throws Exception {
+		if (this.elementsInBloomFilter.sum() >= this.expectedNumberOfElements) {
+			throw new Exception("Not enough space");
+		}
+		FilterMetrics metrics = this.metrics;
+		if (metrics == null) {
+			this.add(hash1);
+		} else {
+			long start = metrics.start();
+			this.add(hash1);
+			metrics.recordAdd(start);
+		}
+		this.elementsInBloomFilter.increment();
+	}
+
+	private boolean query(long hash1) {
+		FilterMetrics metrics = this.metrics;
+		if (metrics == null) {
+			return this.contains(hash1);
+		}
+		long start = metrics.start();
+		boolean result = this.contains(hash1);
+		metrics.recordQuery(result, start);
+		return result;
+	}
+
+	@Override
+	public void add(E element) throws Exception {
+		this.insert(this.hash(element));
+	}
+
+	public void addLong(long value) throws Exception {
+		this.insert(this.hashStrategy.hashLong(value));
+	}
+
+	public void addInt(int value) throws Exception {
+		this.insert(this.hashStrategy.hashInt(value));
+	}
+
+	public void add(byte[] data, int offset, int length) throws Exception {
+		this.insert(this.hashStrategy.hash(data, offset, length));
+	}
+
+	// adds the remaining bytes, the buffer's position is left unchanged
+	public void addBytes(ByteBuffer buffer) throws Exception {
+		this.insert(this.hashStrategy.hash(buffer));
+	}
+
+	/*
+	 * Sets the element's bits and counts it without the capacity check, for
+	 * builders that fill partial filters and check the total once at the end.
+	 */
+	protected void addUnchecked(E element) {
+		this.add(this.hash(element));
+		this.elementsInBloomFilter.increment();
+	}
+
+	@Override
+	public boolean contains(E element) {
+		return this.query(this.hash(element));
+	}
+
+	public boolean containsLong(long value) {
+		return this.query(this.hashStrategy.hashLong(value));
+	}
+
+	public boolean containsInt(int value) {
+		return this.query(this.hashStrategy.hashInt(value));
+	}
+
+	public boolean contains(byte[] data, int offset, int length) {
+		return this.query(this.hashStrategy.hash(data, offset, length));
+	}
+
+	public boolean containsBytes(ByteBuffer buffer) {
+		return this.query(this.hashStrategy.hash(buffer));
+	}
+
+	// hashes the whole batch first so the probes below do not wait on hashing
+	private long[] hashAll(E[] elements) {
+		long[] hashes = new long[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			hashes[i] = this.hash(elements[i]);
+		}
+		return hashes;
+	}
+
+	private void addAll(long[] hashes, int count) throws Exception {
+		if (count > this.expectedNumberOfElements
+				- this.elementsInBloomFilter.sum()) {
+			throw new Exception("Not enough space");
+		}
+		for (int i = 0; i < count; i++) {
+			this.add(hashes[i]);
+		}
+		this.elementsInBloomFilter.add(count);
+		FilterMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.recordAdds(count);
+		}
+	}
+
+	private void recordQueries(boolean[] result) {
+		FilterMetrics metrics = this.metrics;
+		if (metrics != null) {
+			int positives = 0;
+			for (boolean contained : result) {
+				if (contained) {
+					positives++;
+				}
+			}
+			metrics.recordQueries(result.length, positives);
+		}
+	}
+
+	/*
+	 * Second pass of both batch lookups, once the whole batch is hashed:
+	 * probes key by key with the usual early exit. The keys are independent,
+	 * so the CPU overlaps their misses on its own. Probing position i of
+	 * every key before i + 1 measured the same in BulkBenchmark (hits and
+	 * misses, 100K and 10M elements, within the error) and needs another
+	 * array, so this is the only order.
+	 */
+	private boolean[] containsAll(long[] hashes) {
+		boolean[] result = new boolean[hashes.length];
+		for (int e = 0; e < hashes.length; e++) {
+			result[e] = this.contains(hashes[e]);
+		}
+		this.recordQueries(result);
+		return result;
+	}
+
+	public void addAll(E[] elements) throws Exception {
+		this.addAll(this.hashAll(elements), elements.length);
+	}
+
+	public void addAll(Iterable<? extends E> elements) throws Exception {
+		long[] hashes = new long[16];
+		int count = 0;
+		for (E element : elements) {
+			if (count == hashes.length) {
+				hashes = Arrays.copyOf(hashes, count * 2);
+			}
+			hashes[count++] = this.hash(element);
+		}
+		this.addAll(hashes, count);
+	}
+
+	public boolean[] containsAll(E[] elements) {
+		return this.containsAll(this.hashAll(elements));
+	}
+
+	public int countContained(E[] elements) {
+		int count = 0;
+		for (boolean contained : this.containsAll(elements)) {
+			if (contained) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	// hashes the whole batch in one tight loop, then probes it
+	public boolean[] containsAllLongs(long[] values) {
+		long[] hashes = new long[values.length];
+		for (int e = 0; e < values.length; e++) {
+			hashes[e] = this.hashStrategy.hashLong(values[e]);
+		}
+		return this.containsAll(hashes);
+	}
+
+	public void addAllLongs(long[] values) throws Exception {
+		long[] hashes = new long[values.length];
+		for (int e = 0; e < values.length; e++) {
+			hashes[e] = this.hashStrategy.hashLong(values[e]);
+		}
+		this.addAll(hashes, values.length);
+	}
+
+	private void checkCompatible(AbstractBloomFilter<E> other)
+			throws Exception {
+		if (this.storage.bitSize() != other.storage.bitSize()
+				|| this.hashFuncs != other.hashFuncs
+				|| this.hashStrategy.getId() != other.hashStrategy.getId()) {
+			throw new Exception("Incompatible bloom filters");
+		}
+	}
+
+	/*
+	 * n = -(m / k) ln(1 - X / m) from the number of set bits X, capped at the
+	 * expected number of elements: the union of two half full filters may
+	 * estimate more than fits, and a saturated one would estimate infinity.
+	 * Either way the filter is full and the next add is refused.
+	 */
+	private long estimateElements() {
+		if (this.hashFuncs == 0) {
+			return 0;
+		}
+		double bitSize = this.storage.bitSize();
+		double estimate = -(bitSize / this.hashFuncs)
+				* Math.log(1 - this.storage.cardinality() / bitSize);
+		return Math.min(Math.round(estimate), this.expectedNumberOfElements);
+	}
+
+	// in place, the element count becomes an estimate
+	public void union(AbstractBloomFilter<E> other) throws Exception {
+		this.checkCompatible(other);
+		this.storage.or(other.storage);
+		this.setElementsCount(this.estimateElements());
+	}
+
+	public void intersect(AbstractBloomFilter<E> other) throws Exception {
+		this.checkCompatible(other);
+		this.storage.and(other.storage);
+		this.setElementsCount(this.estimateElements());
+	}
+
+	// this |= other adding up the exact counts, for filters of disjoint parts
+	protected void merge(AbstractBloomFilter<E> other) throws Exception {
+		this.checkCompatible(other);
+		this.storage.or(other.storage);
+		this.elementsInBloomFilter.add(other.elementsCount());
+	}
+
+	// for subclasses restoring a filter whose bits are already set
+	protected void setElementsCount(long count) {
+		this.elementsInBloomFilter.reset();
+		this.elementsInBloomFilter.add(count);
+	}
+
+	@Override
+	public void clear() {
+		this.elementsInBloomFilter.reset();
+		this.storage.clear();
+	}
+
+	/*
+	 * Starts recording add / contains statistics, see FilterMetrics. The field
+	 * is volatile and read once per call, so threads already adding pick the
+	 * metrics up or drop them safely.
+	 */
+	public synchronized FilterMetrics enableMetrics(boolean latencyHistograms) {
+		if (this.metrics == null) {
+			final AbstractBloomFilter<E> filter = this;
+			this.metrics = new FilterMetrics(new MetricsSource() {
+				@Override
+				public long bitSetSize() {
+					return filter.getBitSetSize();
+				}
+
+				@Override
+				public long cardinality() {
+					return filter.cardinality();
+				}
+
+				@Override
+				public int hashFunctionsCount() {
+					return filter.getHashFunctionsCount();
+				}
+
+				@Override
+				public long elementsCount() {
+					return filter.elementsCount();
+				}
+			}, latencyHistograms);
+		}
+		return this.metrics;
+	}
+
+	public synchronized void disableMetrics() {
+		this.metrics = null;
+	}
+
+	public FilterMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	// streams the words out of the storage; the funnel is not serialized,
+	// read filters use the default one
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		FilterFormat.write(channel, this.header(), (from, target,
+				count) -> this.storage.getWords((int) from, target, 0, count));
+	}
+
+	// fills the storage with the body that follows the header
+	protected void readBody(ReadableByteChannel channel, FilterHeader header)
+			throws Exception {
+		FilterFormat.readBody(channel, header, this.wordSink());
+	}
+
+	protected void readBody(ByteBuffer buffer, FilterHeader header)
+			throws Exception {
+		FilterFormat.readBody(buffer, header, this.wordSink());
+	}
+
+	private WordSink wordSink() {
+		return (from, source, count) -> this.storage.setWords((int) from,
+				source, 0, count);
+	}
+
+	protected FilterHeader header() {
+		return new FilterHeader(this.storage.bitSize(), this.hashFuncs,
+				this.hashStrategy.getId(), this.getBitPerElement(),
+				this.expectedNumberOfElements, this.elementsCount());
+	}
+
+	@Override
+	public double expectedFalsePositiveProbability() {
+		return this.getFalsePositiveProbability(this.expectedNumberOfElements);
+	}
+
+	public double getFalsePositiveProbability(double numberOfElements) {
+		return FilterSizing.falsePositiveProbability(this.storage.bitSize(),
+				this.hashFuncs, numberOfElements);
+	}
+
+	@Override
+	public double getFalsePositiveProbability() {
+		return this.getFalsePositiveProbability(this.elementsInBloomFilter
+				.sum());
+	}
+
+	public long elementsCount() {
+		return this.elementsInBloomFilter.sum();
+	}
+
+	public long expectedNumberOfElements() {
+		return this.expectedNumberOfElements;
+	}
+
+	public int getHashFunctionsCount() {
+		return this.hashFuncs;
+	}
+
+	public long getBitSetSize() {
+		return this.storage.bitSize();
+	}
+
+	// whole bits per expected element
+	public int getBitPerElement() {
+		return (int) (this.storage.bitSize() / this.expectedNumberOfElements);
+	}
+
+	// number of set bits
+	public long cardinality() {
+		return this.storage.cardinality();
+	}
+
+	public long[] toLongArray() {
+		return this.storage.toLongArray();
+	}
+
+	public HashStrategy getHashStrategy() {
+		return this.hashStrategy;
+	}
+
+	protected Funnel<? super E> getFunnel() {
+		return this.funnel;
+	}
+
+	protected BitStorage getStorage() {
+		return this.storage;
+	}
+
+	// filters with the same parameters and bits are equal whatever the storage
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		AbstractBloomFilter<?> other = (AbstractBloomFilter<?>) obj;
+		if (this.expectedNumberOfElements != other.expectedNumberOfElements) {
+			return false;
+		}
+		if (this.hashFuncs != other.hashFuncs) {
+			return false;
+		}
+		if (this.storage.bitSize() != other.storage.bitSize()) {
+			return false;
+		}
+		if (this.hashStrategy.getId() != other.hashStrategy.getId()) {
+			return false;
+		}
+		if (this.elementsCount() != other.elementsCount()) {
+			return false;
+		}
+		for (int i = 0; i < this.storage.wordCount(); i++) {
+			if (this.storage.getWord(i) != other.storage.getWord(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		hash = 31 * hash + Arrays.hashCode(this.storage.toLongArray());
+		hash = 31 * hash
+				+ (int) (this.expectedNumberOfElements ^ (this.expectedNumberOfElements >>> 32));
+		hash = 31 * hash + this.hashFuncs;
+		hash = 31 * hash + this.hashStrategy.getId();
+		return hash;
+	}
+}
@@ -0,0 +1,54 @@
+package src.uni.fmi.dsaproject.bloomfilter.core;
+
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnel;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnels;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.sizing.FilterSizing;
+import src.uni.fmi.dsaproject.bloomfilter.storage.BitStorage;
+import src.uni.fmi.dsaproject.bloomfilter.storage.StorageType;
+
+/*
+ * Bloom filter on any BitStorage. The backend is a constructor argument, so
+ * the same code runs on boolean[], BitSet, long[], AtomicLongArray, off-heap
+ * or a mapped file:
+ *
+ *   StorageBloomFilter.create(1000000, 0.01, StorageType.OFF_HEAP)
+ *   new StorageBloomFilter<>(MappedFileStorage.create(path, m), n, k)
+ */
+public class StorageBloomFilter<E> extends AbstractBloomFilter<E> {
+
+	public StorageBloomFilter(BitStorage storage, long expectedNumberOElements,
+			int hashFuncs, HashStrategy hashStrategy, Funnel<? super E> funnel)
+			throws Exception {
+		super(storage, expectedNumberOElements, hashFuncs, hashStrategy, funnel);
+	}
+
+	public StorageBloomFilter(BitStorage storage, long expectedNumberOElements,
+			int hashFuncs) throws Exception {
+		this(storage, expectedNumberOElements, hashFuncs,
+				HashStrategies.XXHASH64, Funnels.TO_STRING);
+	}
+
+	public static <E> StorageBloomFilter<E> create(long expectedInsertions,
+			double falsePositiveProbability, StorageType storageType,
+			HashStrategy hashStrategy, Funnel<? super E> funnel)
+			throws Exception {
+		FilterSizing sizing = FilterSizing.optimal(expectedInsertions,
+				falsePositiveProbability);
+		return new StorageBloomFilter<E>(storageType.create(sizing
+				.getBitSetSize()), expectedInsertions,
+				sizing.getHashFunctionsCount(), hashStrategy, funnel);
+	}
+
+	public static <E> StorageBloomFilter<E> create(long expectedInsertions,
+			double falsePositiveProbability, StorageType storageType)
+			throws Exception {
+		return create(expectedInsertions, falsePositiveProbability,
+				storageType, HashStrategies.XXHASH64, Funnels.TO_STRING);
+	}
+
+	public boolean isThreadSafe() {
+		return this.getStorage().isThreadSafe();
+	}
+}
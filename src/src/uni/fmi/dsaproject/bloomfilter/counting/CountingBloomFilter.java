@@ -0,0 +1,225 @@
+package src.uni.fmi.dsaproject.bloomfilter.counting;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import src.uni.fmi.dsaproject.bloomfilter.Filter;
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.sizing.FilterSizing;
+
+/*
+ * Counting bloom filter with 4-bit saturating counters, 16 of them packed in
+ * every long. A counter that reaches 15 sticks there, since after an overflow
+ * the real count is unknown and decrementing it could create false negatives.
+ */
+public class CountingBloomFilter<E> implements Filter<E> {
+	private static final long MAX_COUNT = 15;
+
+	private long[] counters;
+	private int hashFuncs;
+	private int bitPerElement;
+	private int expectedNumberOfElements;
+	private int elementsInBloomFilter;
+	private int bitSetSize;
+	private HashStrategy hashStrategy;
+
+	private long getCount(int index) {
+		return (this.counters[index >>> 4] >>> ((index & 15) << 2)) & MAX_COUNT;
+	}
+
+	private void increment(int index) {
+		if (this.getCount(index) < MAX_COUNT) {
+			this.counters[index >>> 4] += 1L << ((index & 15) << 2);
+		}
+	}
+
+	private void decrement(int index) {
+		long count = this.getCount(index);
+		if (count > 0 && count < MAX_COUNT) {
+			this.counters[index >>> 4] -= 1L << ((index & 15) << 2);
+		}
+	}
+
+	private int index(long hash1, long hash2, int i) {
+		return (int) HashStrategies.index(hash1, hash2, i, this.bitSetSize);
+	}
+
+	private long hash(byte[] data) {
+		return this.hashStrategy.hash(data, 0, data.length);
+	}
+
+	private boolean contains(long hash1) {
+		long hash2 = HashStrategies.secondHash(hash1);
+		for (int i = 0; i < this.getHashFunctionsCount(); i++) {
+			if (this.getCount(this.index(hash1, hash2, i)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public CountingBloomFilter(int bitsPerElement,
+			int expectedNumberOElements, int hashFuncs,
+			HashStrategy hashStrategy) throws Exception {
+		if ((long) expectedNumberOElements * bitsPerElement > Integer.MAX_VALUE) {
+			throw new Exception("Bit set size too large");
+		}
+		this.bitSetSize = expectedNumberOElements * bitsPerElement;
+		this.bitPerElement = bitsPerElement;
+		this.expectedNumberOfElements = expectedNumberOElements;
+		this.hashFuncs = hashFuncs;
+		this.elementsInBloomFilter = 0;
+		this.counters = new long[(this.bitSetSize + 15) >>> 4];
+		this.hashStrategy = hashStrategy;
+	}
+
+	public CountingBloomFilter(int bitsPerElement,
+			int expectedNumberOElements, int hashFuncs) throws Exception {
+		this(bitsPerElement, expectedNumberOElements, hashFuncs,
+				HashStrategies.XXHASH64);
+	}
+
+	public CountingBloomFilter(int bitSetSize, int expectedNumberOElements)
+			throws Exception {
+		this(bitSetSize / expectedNumberOElements, expectedNumberOElements,
+				(int) Math.round((bitSetSize / expectedNumberOElements)
+						* Math.log(2.0)));
+	}
+
+	public void add(E element) throws Exception {
+		if (this.elementsInBloomFilter == this.expectedNumberOfElements) {
+			throw new Exception("Not enough space");
+		}
+		long hash1 = this.hash(element.toString().getBytes(StandardCharsets.UTF_8));
+		long hash2 = HashStrategies.secondHash(hash1);
+		for (int i = 0; i < this.getHashFunctionsCount(); i++) {
+			this.increment(this.index(hash1, hash2, i));
+		}
+		this.elementsInBloomFilter++;
+	}
+
+	// returns false, and changes nothing, when the element is definitely absent
+	public boolean remove(E element) {
+		long hash1 = this.hash(element.toString().getBytes(StandardCharsets.UTF_8));
+		if (!this.contains(hash1)) {
+			return false;
+		}
+		long hash2 = HashStrategies.secondHash(hash1);
+		for (int i = 0; i < this.getHashFunctionsCount(); i++) {
+			this.decrement(this.index(hash1, hash2, i));
+		}
+		this.elementsInBloomFilter--;
+		return true;
+	}
+
+	public boolean contains(E element) {
+		return this.contains(this.hash(element.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	public void clear() {
+		this.elementsInBloomFilter = 0;
+		Arrays.fill(this.counters, 0L);
+	}
+
+	// plain bit filter with a bit set wherever a counter is non-zero
+	public BloomFilter<E> toBloomFilter() throws Exception {
+		long[] words = new long[(this.bitSetSize + 63) >>> 6];
+		for (int w = 0; w < this.counters.length; w++) {
+			long counter = this.counters[w];
+			if (counter == 0) {
+				continue;
+			}
+			// fold every nibble onto its lowest bit
+			counter |= counter >>> 1;
+			counter |= counter >>> 2;
+			counter &= 0x1111111111111111L;
+			int index = w << 4;
+			for (int c = 0; c < 16; c++) {
+				if ((counter & (1L << (c << 2))) != 0) {
+					words[(index + c) >>> 6] |= 1L << (index + c);
+				}
+			}
+		}
+		return new BloomFilter<E>(this.bitPerElement,
+				this.expectedNumberOfElements, this.hashFuncs,
+				this.hashStrategy, words, this.elementsInBloomFilter);
+	}
+
+	public double expectedFalsePositiveProbability() {
+		return getFalsePositiveProbability(this.expectedNumberOfElements);
+	}
+
+	public double getFalsePositiveProbability(double numberOfElements) {
+		return FilterSizing.falsePositiveProbability(this.bitSetSize,
+				this.getHashFunctionsCount(), numberOfElements);
+	}
+
+	public double getFalsePositiveProbability() {
+		return getFalsePositiveProbability(this.elementsInBloomFilter);
+	}
+
+	public int elementsCount() {
+		return this.elementsInBloomFilter;
+	}
+
+	public int getHashFunctionsCount() {
+		return this.hashFuncs;
+	}
+
+	public int getBitPerElement() {
+		return this.bitPerElement;
+	}
+
+	public int getBitSetSize() {
+		return this.bitSetSize;
+	}
+
+	public HashStrategy getHashStrategy() {
+		return this.hashStrategy;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		@SuppressWarnings("unchecked")
+		CountingBloomFilter<E> other = (CountingBloomFilter<E>) obj;
+		if (this.expectedNumberOfElements != other.expectedNumberOfElements) {
+			return false;
+		}
+		if (this.bitPerElement != other.bitPerElement) {
+			return false;
+		}
+		if (this.hashFuncs != other.hashFuncs) {
+			return false;
+		}
+		if (this.bitSetSize != other.bitSetSize) {
+			return false;
+		}
+		if (this.hashStrategy.getId() != other.hashStrategy.getId()) {
+			return false;
+		}
+		if (this.elementsInBloomFilter != other.elementsInBloomFilter) {
+			return false;
+		}
+		return Arrays.equals(this.counters, other.counters);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		hash = 31 * hash + Arrays.hashCode(this.counters);
+		hash = 31 * hash + this.bitPerElement;
+		hash = 31 * hash + this.expectedNumberOfElements;
+		hash = 31 * hash + this.bitSetSize;
+		hash = 31 * hash + this.hashFuncs;
+		hash = 31 * hash + this.hashStrategy.getId();
+		return hash;
+	}
+}
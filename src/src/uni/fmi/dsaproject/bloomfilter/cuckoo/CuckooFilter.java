@@ -0,0 +1,257 @@
+package src.uni.fmi.dsaproject.bloomfilter.cuckoo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import src.uni.fmi.dsaproject.bloomfilter.Filter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+
+/*
+ * Cuckoo filter (Fan et al.) with 16-bit fingerprints and buckets of four
+ * slots. A bucket is exactly one long, so a lookup reads two words. An
+ * element lives in bucket i1 or in i2 = i1 ^ hash(fingerprint); when both are
+ * full a resident is kicked to its other bucket, at most MAX_KICKS times.
+ */
+public class CuckooFilter<E> implements Filter<E> {
+	public static final int SLOTS_PER_BUCKET = 4;
+	public static final int FINGERPRINT_BITS = 16;
+	private static final int MAX_KICKS = 500;
+	private static final double LOAD_FACTOR = 0.95;
+	private static final long LOW_BITS = 0x0001000100010001L;
+	private static final long HIGH_BITS = 0x8000800080008000L;
+
+	private long[] buckets;
+	private int bucketMask;
+	private int expectedNumberOfElements;
+	private int elementsInFilter;
+	private HashStrategy hashStrategy;
+	// the element left homeless by the last failed chain of kicks
+	private boolean hasVictim;
+	private int victimIndex;
+	private long victimFingerprint;
+	private long random = 0x2545F4914F6CDD1DL;
+
+	public CuckooFilter(int expectedNumberOElements, HashStrategy hashStrategy)
+			throws Exception {
+		if (expectedNumberOElements <= 0) {
+			throw new Exception("Expected number of elements must be positive");
+		}
+		long needed = (long) Math.ceil(expectedNumberOElements
+				/ (SLOTS_PER_BUCKET * LOAD_FACTOR));
+		if (needed > 1 << 30) {
+			throw new Exception("Bit set size too large");
+		}
+		int bucketCount = Integer.highestOneBit((int) Math.max(1, needed));
+		if (bucketCount < needed) {
+			bucketCount <<= 1;
+		}
+		this.buckets = new long[bucketCount];
+		this.bucketMask = bucketCount - 1;
+		this.expectedNumberOfElements = expectedNumberOElements;
+		this.elementsInFilter = 0;
+		this.hashStrategy = hashStrategy;
+	}
+
+	public CuckooFilter(int expectedNumberOElements) throws Exception {
+		this(expectedNumberOElements, HashStrategies.XXHASH64);
+	}
+
+	private long hash(E element) {
+		byte[] data = element.toString().getBytes(StandardCharsets.UTF_8);
+		return this.hashStrategy.hash(data, 0, data.length);
+	}
+
+	// never 0, which marks an empty slot
+	private static long fingerprint(long hash) {
+		long fingerprint = hash >>> (64 - FINGERPRINT_BITS);
+		return fingerprint == 0 ? 1 : fingerprint;
+	}
+
+	private int alternateIndex(int index, long fingerprint) {
+		return (index ^ (int) HashStrategies.secondHash(fingerprint))
+				& this.bucketMask;
+	}
+
+	private boolean bucketContains(int index, long fingerprint) {
+		// SWAR test for a 16-bit lane equal to the fingerprint
+		long x = this.buckets[index] ^ (fingerprint * LOW_BITS);
+		return ((x - LOW_BITS) & ~x & HIGH_BITS) != 0;
+	}
+
+	private boolean bucketInsert(int index, long fingerprint) {
+		long bucket = this.buckets[index];
+		for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+			int shift = slot * FINGERPRINT_BITS;
+			if (((bucket >>> shift) & 0xFFFF) == 0) {
+				this.buckets[index] = bucket | (fingerprint << shift);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean bucketRemove(int index, long fingerprint) {
+		long bucket = this.buckets[index];
+		for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+			int shift = slot * FINGERPRINT_BITS;
+			if (((bucket >>> shift) & 0xFFFF) == fingerprint) {
+				this.buckets[index] = bucket & ~(0xFFFFL << shift);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int nextRandom(int bound) {
+		// xorshift, only used to pick which resident gets kicked
+		this.random ^= this.random << 13;
+		this.random ^= this.random >>> 7;
+		this.random ^= this.random << 17;
+		return (int) ((this.random >>> 33) % bound);
+	}
+
+	private void insert(int index, long fingerprint) {
+		if (this.bucketInsert(index, fingerprint)
+				|| this.bucketInsert(this.alternateIndex(index, fingerprint),
+						fingerprint)) {
+			return;
+		}
+		if (this.nextRandom(2) == 1) {
+			index = this.alternateIndex(index, fingerprint);
+		}
+		for (int kick = 0; kick < MAX_KICKS; kick++) {
+			int shift = this.nextRandom(SLOTS_PER_BUCKET) * FINGERPRINT_BITS;
+			long bucket = this.buckets[index];
+			long evicted = (bucket >>> shift) & 0xFFFF;
+			this.buckets[index] = (bucket & ~(0xFFFFL << shift))
+					| (fingerprint << shift);
+			fingerprint = evicted;
+			index = this.alternateIndex(index, fingerprint);
+			if (this.bucketInsert(index, fingerprint)) {
+				return;
+			}
+		}
+		this.hasVictim = true;
+		this.victimIndex = index;
+		this.victimFingerprint = fingerprint;
+	}
+
+	public void add(E element) throws Exception {
+		if (this.hasVictim) {
+			throw new Exception("Not enough space");
+		}
+		long hash = this.hash(element);
+		this.insert((int) hash & this.bucketMask, fingerprint(hash));
+		this.elementsInFilter++;
+	}
+
+	public boolean contains(E element) {
+		long hash = this.hash(element);
+		long fingerprint = fingerprint(hash);
+		int index1 = (int) hash & this.bucketMask;
+		int index2 = this.alternateIndex(index1, fingerprint);
+		if (this.bucketContains(index1, fingerprint)
+				|| this.bucketContains(index2, fingerprint)) {
+			return true;
+		}
+		return this.hasVictim
+				&& this.victimFingerprint == fingerprint
+				&& (this.victimIndex == index1 || this.victimIndex == index2);
+	}
+
+	// only remove elements that were added, otherwise another element's
+	// fingerprint may be removed in its place
+	public boolean remove(E element) {
+		long hash = this.hash(element);
+		long fingerprint = fingerprint(hash);
+		int index1 = (int) hash & this.bucketMask;
+		int index2 = this.alternateIndex(index1, fingerprint);
+		if (this.bucketRemove(index1, fingerprint)
+				|| this.bucketRemove(index2, fingerprint)) {
+			this.elementsInFilter--;
+			if (this.hasVictim) {
+				// a slot was freed, give the victim another chance
+				this.hasVictim = false;
+				this.insert(this.victimIndex, this.victimFingerprint);
+			}
+			return true;
+		}
+		if (this.hasVictim && this.victimFingerprint == fingerprint
+				&& (this.victimIndex == index1 || this.victimIndex == index2)) {
+			this.hasVictim = false;
+			this.elementsInFilter--;
+			return true;
+		}
+		return false;
+	}
+
+	public void clear() {
+		this.elementsInFilter = 0;
+		this.hasVictim = false;
+		Arrays.fill(this.buckets, 0L);
+	}
+
+	public double expectedFalsePositiveProbability() {
+		return getFalsePositiveProbability(this.expectedNumberOfElements);
+	}
+
+	public double getFalsePositiveProbability(double numberOfElements) {
+		// a lookup compares against the 2 * n / buckets fingerprints stored in
+		// its two buckets on average: 1 - (1 - 1 / (2^f - 1)) ^ (2 * n / b)
+		return 1 - Math.pow(1 - 1.0 / ((1 << FINGERPRINT_BITS) - 1), 2
+				* numberOfElements / this.buckets.length);
+	}
+
+	public double getFalsePositiveProbability() {
+		return getFalsePositiveProbability(this.elementsInFilter);
+	}
+
+	public int elementsCount() {
+		return this.elementsInFilter;
+	}
+
+	public int getBucketCount() {
+		return this.buckets.length;
+	}
+
+	public HashStrategy getHashStrategy() {
+		return this.hashStrategy;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		@SuppressWarnings("unchecked")
+		CuckooFilter<E> other = (CuckooFilter<E>) obj;
+		if (this.expectedNumberOfElements != other.expectedNumberOfElements) {
+			return false;
+		}
+		if (this.hashStrategy.getId() != other.hashStrategy.getId()) {
+			return false;
+		}
+		if (this.elementsInFilter != other.elementsInFilter) {
+			return false;
+		}
+		if (this.hasVictim != other.hasVictim
+				|| (this.hasVictim && (this.victimIndex != other.victimIndex
+						|| this.victimFingerprint != other.victimFingerprint))) {
+			return false;
+		}
+		return Arrays.equals(this.buckets, other.buckets);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		hash = 31 * hash + Arrays.hashCode(this.buckets);
+		hash = 31 * hash + this.expectedNumberOfElements;
+		hash = 31 * hash + this.hashStrategy.getId();
+		return hash;
+	}
+}
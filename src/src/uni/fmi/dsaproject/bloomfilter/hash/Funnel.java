@@ -0,0 +1,12 @@
+package src.uni.fmi.dsaproject.bloomfilter.hash;
+
+/*
+ * Turns an element into its hash by feeding its identifying bytes to the
+ * filter's hash strategy. Implementations decide how a key is serialized and
+ * can hash primitive fields directly (HashStrategy.hashLong / hashInt)
+ * without building an intermediate String or byte[].
+ */
+public interface Funnel<E> {
+
+	long hash(E element, HashStrategy hashStrategy);
+}
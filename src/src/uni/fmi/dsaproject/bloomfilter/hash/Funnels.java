@@ -0,0 +1,47 @@
+package src.uni.fmi.dsaproject.bloomfilter.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class Funnels {
+
+	// UTF-8 bytes of toString(), the same on every host
+	public static final Funnel<Object> TO_STRING = new Funnel<Object>() {
+		@Override
+		public long hash(Object element, HashStrategy hashStrategy) {
+			byte[] data = element.toString().getBytes(StandardCharsets.UTF_8);
+			return hashStrategy.hash(data, 0, data.length);
+		}
+	};
+
+	public static final Funnel<Long> LONG = new Funnel<Long>() {
+		@Override
+		public long hash(Long element, HashStrategy hashStrategy) {
+			return hashStrategy.hashLong(element);
+		}
+	};
+
+	public static final Funnel<Integer> INTEGER = new Funnel<Integer>() {
+		@Override
+		public long hash(Integer element, HashStrategy hashStrategy) {
+			return hashStrategy.hashInt(element);
+		}
+	};
+
+	public static final Funnel<byte[]> BYTE_ARRAY = new Funnel<byte[]>() {
+		@Override
+		public long hash(byte[] element, HashStrategy hashStrategy) {
+			return hashStrategy.hash(element, 0, element.length);
+		}
+	};
+
+	public static final Funnel<ByteBuffer> BYTE_BUFFER = new Funnel<ByteBuffer>() {
+		@Override
+		public long hash(ByteBuffer element, HashStrategy hashStrategy) {
+			return hashStrategy.hash(element);
+		}
+	};
+
+	private Funnels() {
+	}
+}
@@ -0,0 +1,34 @@
+package src.uni.fmi.dsaproject.bloomfilter.hash;
+
+public final class HashStrategies {
+
+	public static final HashStrategy XXHASH64 = new XxHash64Strategy();
+	// the digest the filters used originally, kept for compatibility
+	public static final HashStrategy MD5 = new Md5Strategy();
+
+	private HashStrategies() {
+	}
+
+	public static HashStrategy forId(int id) throws Exception {
+		if (id == XXHASH64.getId()) {
+			return XXHASH64;
+		}
+		if (id == MD5.getId()) {
+			return MD5;
+		}
+		throw new Exception("Unknown hash strategy: " + id);
+	}
+
+	// second independent hash for Kirsch-Mitzenmacher double hashing
+	public static long secondHash(long hash) {
+		long h = hash + 0x9E3779B97F4A7C15L;
+		h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+		h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return h ^ (h >>> 33);
+	}
+
+	// g_i(x) = h1(x) + i * h2(x) (mod m)
+	public static long index(long hash1, long hash2, int i, long bitSetSize) {
+		return ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSetSize;
+	}
+}
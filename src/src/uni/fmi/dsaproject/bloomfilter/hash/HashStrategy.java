@@ -0,0 +1,46 @@
+package src.uni.fmi.dsaproject.bloomfilter.hash;
+
+import java.nio.ByteBuffer;
+
+/*
+ * Produces the 64-bit base hash from which a filter derives its k bit
+ * positions (see HashStrategies.index). Implementations must be stateless or
+ * thread-confined so that filters can hash without locking.
+ */
+public interface HashStrategy {
+
+	// stable identifier, used to check compatibility between filters
+	int getId();
+
+	long hash(byte[] data, int offset, int length);
+
+	// hashes the remaining bytes without moving the buffer's position
+	default long hash(ByteBuffer buffer) {
+		if (buffer.hasArray()) {
+			return this.hash(buffer.array(),
+					buffer.arrayOffset() + buffer.position(),
+					buffer.remaining());
+		}
+		byte[] data = new byte[buffer.remaining()];
+		buffer.duplicate().get(data);
+		return this.hash(data, 0, data.length);
+	}
+
+	// same as hashing the 8 little-endian bytes of value
+	default long hashLong(long value) {
+		byte[] data = new byte[8];
+		for (int i = 0; i < 8; i++) {
+			data[i] = (byte) (value >>> (i * 8));
+		}
+		return this.hash(data, 0, 8);
+	}
+
+	// same as hashing the 4 little-endian bytes of value
+	default long hashInt(int value) {
+		byte[] data = new byte[4];
+		for (int i = 0; i < 4; i++) {
+			data[i] = (byte) (value >>> (i * 8));
+		}
+		return this.hash(data, 0, 4);
+	}
+}
@@ -0,0 +1,39 @@
+package src.uni.fmi.dsaproject.bloomfilter.hash;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/*
+ * MD5 based hashing. Every thread gets its own digest instead of all callers
+ * synchronizing on a shared one.
+ */
+final class Md5Strategy implements HashStrategy {
+	private static final ThreadLocal<MessageDigest> DIGEST = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance("MD5");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException("MD5 could not be found", e);
+			}
+		}
+	};
+
+	@Override
+	public int getId() {
+		return 2;
+	}
+
+	@Override
+	public long hash(byte[] data, int offset, int length) {
+		MessageDigest digestFunction = DIGEST.get();
+		digestFunction.update(data, offset, length);
+		byte[] digest = digestFunction.digest();
+		long h = 0;
+		for (int j = 0; j < 8; j++) {
+			h <<= 8;
+			h |= ((long) digest[j]) & 0xFF;
+		}
+		return h;
+	}
+}
@@ -0,0 +1,178 @@
+package src.uni.fmi.dsaproject.bloomfilter.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/*
+ * xxHash64 (seed 0). Non-cryptographic, reads the input 8 bytes at a time and
+ * keeps no state between calls.
+ */
+final class XxHash64Strategy implements HashStrategy {
+	private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+	private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long PRIME64_3 = 0x165667B19E3779F9L;
+	private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+	private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+	@Override
+	public int getId() {
+		return 1;
+	}
+
+	@Override
+	public long hash(byte[] data, int offset, int length) {
+		int end = offset + length;
+		int p = offset;
+		long h;
+		if (length >= 32) {
+			long v1 = PRIME64_1 + PRIME64_2;
+			long v2 = PRIME64_2;
+			long v3 = 0;
+			long v4 = -PRIME64_1;
+			int limit = end - 32;
+			do {
+				v1 = round(v1, getLong(data, p));
+				v2 = round(v2, getLong(data, p + 8));
+				v3 = round(v3, getLong(data, p + 16));
+				v4 = round(v4, getLong(data, p + 24));
+				p += 32;
+			} while (p <= limit);
+			h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+					+ Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+			h = mergeRound(h, v1);
+			h = mergeRound(h, v2);
+			h = mergeRound(h, v3);
+			h = mergeRound(h, v4);
+		} else {
+			h = PRIME64_5;
+		}
+		h += length;
+		while (p + 8 <= end) {
+			h ^= round(0, getLong(data, p));
+			h = Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+			p += 8;
+		}
+		if (p + 4 <= end) {
+			h ^= (getInt(data, p) & 0xFFFFFFFFL) * PRIME64_1;
+			h = Long.rotateLeft(h, 23) * PRIME64_2 + PRIME64_3;
+			p += 4;
+		}
+		while (p < end) {
+			h ^= (data[p] & 0xFF) * PRIME64_5;
+			h = Long.rotateLeft(h, 11) * PRIME64_1;
+			p++;
+		}
+		return avalanche(h);
+	}
+
+	// reads a direct buffer in place, heap buffers go through their array
+	@Override
+	public long hash(ByteBuffer buffer) {
+		if (buffer.hasArray()) {
+			return this.hash(buffer.array(),
+					buffer.arrayOffset() + buffer.position(),
+					buffer.remaining());
+		}
+		boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+		int length = buffer.remaining();
+		int end = buffer.limit();
+		int p = buffer.position();
+		long h;
+		if (length >= 32) {
+			long v1 = PRIME64_1 + PRIME64_2;
+			long v2 = PRIME64_2;
+			long v3 = 0;
+			long v4 = -PRIME64_1;
+			int limit = end - 32;
+			do {
+				v1 = round(v1, getLong(buffer, p, bigEndian));
+				v2 = round(v2, getLong(buffer, p + 8, bigEndian));
+				v3 = round(v3, getLong(buffer, p + 16, bigEndian));
+				v4 = round(v4, getLong(buffer, p + 24, bigEndian));
+				p += 32;
+			} while (p <= limit);
+			h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+					+ Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+			h = mergeRound(h, v1);
+			h = mergeRound(h, v2);
+			h = mergeRound(h, v3);
+			h = mergeRound(h, v4);
+		} else {
+			h = PRIME64_5;
+		}
+		h += length;
+		while (p + 8 <= end) {
+			h ^= round(0, getLong(buffer, p, bigEndian));
+			h = Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+			p += 8;
+		}
+		if (p + 4 <= end) {
+			int i = buffer.getInt(p);
+			h ^= ((bigEndian ? Integer.reverseBytes(i) : i) & 0xFFFFFFFFL)
+					* PRIME64_1;
+			h = Long.rotateLeft(h, 23) * PRIME64_2 + PRIME64_3;
+			p += 4;
+		}
+		while (p < end) {
+			h ^= (buffer.get(p) & 0xFF) * PRIME64_5;
+			h = Long.rotateLeft(h, 11) * PRIME64_1;
+			p++;
+		}
+		return avalanche(h);
+	}
+
+	// the 8-byte case of hash(), without a byte[]
+	@Override
+	public long hashLong(long value) {
+		long h = PRIME64_5 + 8;
+		h ^= round(0, value);
+		h = Long.rotateLeft(h, 27) * PRIME64_1 + PRIME64_4;
+		return avalanche(h);
+	}
+
+	// the 4-byte case of hash(), without a byte[]
+	@Override
+	public long hashInt(int value) {
+		long h = PRIME64_5 + 4;
+		h ^= (value & 0xFFFFFFFFL) * PRIME64_1;
+		h = Long.rotateLeft(h, 23) * PRIME64_2 + PRIME64_3;
+		return avalanche(h);
+	}
+
+	private static long round(long acc, long input) {
+		acc += input * PRIME64_2;
+		acc = Long.rotateLeft(acc, 31);
+		return acc * PRIME64_1;
+	}
+
+	private static long mergeRound(long acc, long val) {
+		acc ^= round(0, val);
+		return acc * PRIME64_1 + PRIME64_4;
+	}
+
+	private static long avalanche(long h) {
+		h ^= h >>> 33;
+		h *= PRIME64_2;
+		h ^= h >>> 29;
+		h *= PRIME64_3;
+		return h ^ (h >>> 32);
+	}
+
+	// little-endian reads
+	private static long getLong(byte[] b, int i) {
+		return (b[i] & 0xFFL) | ((b[i + 1] & 0xFFL) << 8)
+				| ((b[i + 2] & 0xFFL) << 16) | ((b[i + 3] & 0xFFL) << 24)
+				| ((b[i + 4] & 0xFFL) << 32) | ((b[i + 5] & 0xFFL) << 40)
+				| ((b[i + 6] & 0xFFL) << 48) | ((b[i + 7] & 0xFFL) << 56);
+	}
+
+	private static long getLong(ByteBuffer buffer, int i, boolean bigEndian) {
+		long l = buffer.getLong(i);
+		return bigEndian ? Long.reverseBytes(l) : l;
+	}
+
+	private static int getInt(byte[] b, int i) {
+		return (b[i] & 0xFF) | ((b[i + 1] & 0xFF) << 8)
+				| ((b[i + 2] & 0xFF) << 16) | ((b[i + 3] & 0xFF) << 24);
+	}
+}
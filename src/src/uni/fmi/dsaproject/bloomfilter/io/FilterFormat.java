@@ -0,0 +1,319 @@
+package src.uni.fmi.dsaproject.bloomfilter.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/*
+ * Binary filter format, all values little-endian:
+ *
+ *   header (64 bytes)
+ *     0  int  magic
+ *     4  int  version
+ *     8  long bitSetSize
+ *    16  int  hashFuncs
+ *    20  int  hash strategy id
+ *    24  int  bitsPerElement
+ *    28  int  reserved (version 1: expectedNumberOfElements)
+ *    32  long elementsCount
+ *    40  long expectedNumberOfElements
+ *   body
+ *     ceil(bitSetSize / 64) longs, bit i is bit (i % 64) of word i / 64
+ *   trailer
+ *     long CRC32 of the header and the body (versions 1 and 2: the body only)
+ *
+ * The words are streamed between the filter and the channel a chunk at a
+ * time through one reusable direct buffer, see WordSource and WordSink. A
+ * memory-mapped filter file uses the same header and body without the
+ * trailer, so a written filter can also be opened with MappedBloomFilter. A
+ * compressed filter file has the same header with COMPRESSED_MAGIC and a
+ * CompressedBitmap as its body, so readers of one kind reject the other.
+ */
+public final class FilterFormat {
+	public static final int MAGIC = 0x424C4D46; // "BLMF"
+	public static final int COMPRESSED_MAGIC = 0x424C4D5A; // "BLMZ"
+	public static final int VERSION = 3;
+	private static final int HEADER_CHECKSUM_VERSION = 3;
+	public static final int HEADER_SIZE = 64;
+	public static final int COUNT_OFFSET = 32;
+	private static final int CHUNK_WORDS = 8 * 1024;
+
+	private FilterFormat() {
+	}
+
+	// writes the header at the buffer's position, which is advanced by
+	// HEADER_SIZE, with the version and layout the header was read with;
+	// the buffer must be little-endian
+	public static void writeHeader(ByteBuffer buffer, FilterHeader header) {
+		writeHeader(buffer, header, MAGIC);
+	}
+
+	public static void writeHeader(ByteBuffer buffer, FilterHeader header,
+			int magic) {
+		int base = buffer.position();
+		for (int i = 0; i < HEADER_SIZE; i += 8) {
+			buffer.putLong(base + i, 0L);
+		}
+		buffer.putInt(base, magic);
+		buffer.putInt(base + 4, header.getVersion());
+		buffer.putLong(base + 8, header.getBitSetSize());
+		buffer.putInt(base + 16, header.getHashFunctionsCount());
+		buffer.putInt(base + 20, header.getHashStrategyId());
+		buffer.putInt(base + 24, header.getBitPerElement());
+		buffer.putLong(base + COUNT_OFFSET, header.getElementsCount());
+		if (header.getVersion() == 1) {
+			buffer.putInt(base + 28, (int) header.getExpectedNumberOfElements());
+		} else {
+			buffer.putLong(base + 40, header.getExpectedNumberOfElements());
+		}
+		buffer.position(base + HEADER_SIZE);
+	}
+
+	// reads the header at the buffer's position, which is advanced by
+	// HEADER_SIZE
+	public static FilterHeader readHeader(ByteBuffer buffer) throws Exception {
+		return readHeader(buffer, MAGIC);
+	}
+
+	public static FilterHeader readHeader(ByteBuffer buffer, int magic)
+			throws Exception {
+		ByteOrder order = buffer.order();
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		try {
+			int base = buffer.position();
+			if (buffer.remaining() < HEADER_SIZE
+					|| buffer.getInt(base) != magic) {
+				throw new Exception("Not a bloom filter file");
+			}
+			int version = buffer.getInt(base + 4);
+			if (version < 1 || version > VERSION) {
+				throw new Exception("Unsupported bloom filter file version: "
+						+ version);
+			}
+			long bitSetSize = buffer.getLong(base + 8);
+			int hashFuncs = buffer.getInt(base + 16);
+			if (bitSetSize < 0 || hashFuncs < 0) {
+				throw new Exception("Corrupted bloom filter file");
+			}
+			long expected = version == 1 ? buffer.getInt(base + 28) : buffer
+					.getLong(base + 40);
+			buffer.position(base + HEADER_SIZE);
+			return new FilterHeader(version, bitSetSize, hashFuncs,
+					buffer.getInt(base + 20), buffer.getInt(base + 24),
+					expected, buffer.getLong(base + COUNT_OFFSET));
+		} finally {
+			buffer.order(order);
+		}
+	}
+
+	// header, the words of the pages in order (zero padded up to the header's
+	// word count) and the checksum
+	public static void write(WritableByteChannel channel, FilterHeader header,
+			long[]... pages) throws IOException {
+		write(channel, header, (from, target, count) -> {
+			int filled = 0;
+			long start = 0;
+			for (long[] page : pages) {
+				long end = start + page.length;
+				if (filled < count && from + filled < end) {
+					int offset = (int) (from + filled - start);
+					int length = Math.min(count - filled, page.length - offset);
+					System.arraycopy(page, offset, target, filled, length);
+					filled += length;
+				}
+				start = end;
+			}
+			Arrays.fill(target, filled, count, 0L);
+		});
+	}
+
+	// header, the header's word count of words taken from the source and the
+	// checksum
+	public static void write(WritableByteChannel channel, FilterHeader header,
+			WordSource source) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_WORDS * 8).order(
+				ByteOrder.LITTLE_ENDIAN);
+		LongBuffer words = buffer.asLongBuffer();
+		writeHeader(buffer, header);
+		buffer.flip();
+		CRC32 crc = new CRC32();
+		crc.update(buffer);
+		buffer.position(0);
+		writeFully(channel, buffer);
+
+		long wordCount = header.getWordCount();
+		long[] chunk = new long[(int) Math.min(CHUNK_WORDS, wordCount)];
+		for (long from = 0; from < wordCount; from += CHUNK_WORDS) {
+			int count = (int) Math.min(CHUNK_WORDS, wordCount - from);
+			source.getWords(from, chunk, count);
+			words.clear();
+			words.put(chunk, 0, count);
+			writeChunk(channel, buffer, count, crc);
+		}
+
+		buffer.clear();
+		buffer.putLong(crc.getValue());
+		buffer.flip();
+		writeFully(channel, buffer);
+	}
+
+	private static void writeChunk(WritableByteChannel channel,
+			ByteBuffer buffer, int words, CRC32 crc) throws IOException {
+		buffer.clear().limit(words * 8);
+		crc.update(buffer);
+		buffer.position(0);
+		writeFully(channel, buffer);
+	}
+
+	private static void writeFully(WritableByteChannel channel,
+			ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	public static FilterHeader readHeader(ReadableByteChannel channel)
+			throws Exception {
+		return readHeader(channel, MAGIC);
+	}
+
+	public static FilterHeader readHeader(ReadableByteChannel channel,
+			int magic) throws Exception {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(
+				ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, buffer);
+		buffer.flip();
+		return readHeader(buffer, magic);
+	}
+
+	// reads the body into the pages, which together must hold exactly the
+	// header's word count, and verifies the checksum
+	public static void readBody(ReadableByteChannel channel,
+			FilterHeader header, long[]... pages) throws Exception {
+		checkPages(header, pages);
+		readBody(channel, header, toPages(pages));
+	}
+
+	// reads the header's word count of words into the sink and verifies the
+	// checksum
+	public static void readBody(ReadableByteChannel channel,
+			FilterHeader header, WordSink sink) throws Exception {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_WORDS * 8).order(
+				ByteOrder.LITTLE_ENDIAN);
+		LongBuffer words = buffer.asLongBuffer();
+		CRC32 crc = checksum(header);
+		long wordCount = header.getWordCount();
+		long[] chunk = new long[(int) Math.min(CHUNK_WORDS, wordCount)];
+		for (long from = 0; from < wordCount; from += CHUNK_WORDS) {
+			int count = (int) Math.min(CHUNK_WORDS, wordCount - from);
+			buffer.clear().limit(count * 8);
+			readFully(channel, buffer);
+			buffer.flip();
+			crc.update(buffer);
+			words.clear();
+			words.get(chunk, 0, count);
+			sink.setWords(from, chunk, count);
+		}
+		buffer.clear().limit(8);
+		readFully(channel, buffer);
+		checkCrc(buffer.getLong(0), crc);
+	}
+
+	// same as above, reading straight out of the buffer and advancing its
+	// position past the trailer
+	public static void readBody(ByteBuffer buffer, FilterHeader header,
+			long[]... pages) throws Exception {
+		checkPages(header, pages);
+		readBody(buffer, header, toPages(pages));
+	}
+
+	public static void readBody(ByteBuffer buffer, FilterHeader header,
+			WordSink sink) throws Exception {
+		long wordCount = header.getWordCount();
+		if (buffer.remaining() < wordCount * 8 + 8) {
+			throw new Exception("Truncated bloom filter file");
+		}
+		ByteBuffer body = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		body.limit((int) (wordCount * 8));
+		CRC32 crc = checksum(header);
+		crc.update(body.duplicate());
+		LongBuffer words = body.asLongBuffer();
+		long[] chunk = new long[(int) Math.min(CHUNK_WORDS, wordCount)];
+		for (long from = 0; from < wordCount; from += CHUNK_WORDS) {
+			int count = (int) Math.min(CHUNK_WORDS, wordCount - from);
+			words.get(chunk, 0, count);
+			sink.setWords(from, chunk, count);
+		}
+		buffer.position(buffer.position() + (int) (wordCount * 8));
+		ByteOrder order = buffer.order();
+		long checksum = buffer.order(ByteOrder.LITTLE_ENDIAN).getLong();
+		buffer.order(order);
+		checkCrc(checksum, crc);
+	}
+
+	private static WordSink toPages(long[][] pages) {
+		return (from, source, count) -> {
+			int copied = 0;
+			long start = 0;
+			for (long[] page : pages) {
+				long end = start + page.length;
+				if (copied < count && from + copied < end) {
+					int offset = (int) (from + copied - start);
+					int length = Math.min(count - copied, page.length - offset);
+					System.arraycopy(source, copied, page, offset, length);
+					copied += length;
+				}
+				start = end;
+			}
+		};
+	}
+
+	/*
+	 * From version 3 on the checksum covers the header too. Every header byte
+	 * follows from the fields (the reserved ones are zero), so the header is
+	 * written back, with the version it was read with, to get the bytes that
+	 * were read.
+	 */
+	private static CRC32 checksum(FilterHeader header) {
+		CRC32 crc = new CRC32();
+		if (header.getVersion() >= HEADER_CHECKSUM_VERSION) {
+			ByteBuffer bytes = ByteBuffer.allocate(HEADER_SIZE).order(
+					ByteOrder.LITTLE_ENDIAN);
+			writeHeader(bytes, header);
+			bytes.flip();
+			crc.update(bytes);
+		}
+		return crc;
+	}
+
+	private static void checkPages(FilterHeader header, long[][] pages)
+			throws Exception {
+		long total = 0;
+		for (long[] page : pages) {
+			total += page.length;
+		}
+		if (total != header.getWordCount()) {
+			throw new Exception("Corrupted bloom filter file");
+		}
+	}
+
+	private static void checkCrc(long expected, CRC32 crc) throws Exception {
+		if (expected != crc.getValue()) {
+			throw new Exception("Checksum mismatch");
+		}
+	}
+
+	private static void readFully(ReadableByteChannel channel,
+			ByteBuffer buffer) throws Exception {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new Exception("Truncated bloom filter file");
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package src.uni.fmi.dsaproject.bloomfilter.io;
+
+/*
+ * The shape and state of a serialized filter, see FilterFormat.
+ */
+public final class FilterHeader {
+	private final int version;
+	private final long bitSetSize;
+	private final int hashFuncs;
+	private final int hashStrategyId;
+	private final int bitsPerElement;
+	private final long expectedNumberOfElements;
+	private final long elementsCount;
+
+	public FilterHeader(long bitSetSize, int hashFuncs, int hashStrategyId,
+			int bitsPerElement, long expectedNumberOfElements,
+			long elementsCount) {
+		this(FilterFormat.VERSION, bitSetSize, hashFuncs, hashStrategyId,
+				bitsPerElement, expectedNumberOfElements, elementsCount);
+	}
+
+	// as read from a file, which may be of an older version
+	public FilterHeader(int version, long bitSetSize, int hashFuncs,
+			int hashStrategyId, int bitsPerElement,
+			long expectedNumberOfElements, long elementsCount) {
+		this.version = version;
+		this.bitSetSize = bitSetSize;
+		this.hashFuncs = hashFuncs;
+		this.hashStrategyId = hashStrategyId;
+		this.bitsPerElement = bitsPerElement;
+		this.expectedNumberOfElements = expectedNumberOfElements;
+		this.elementsCount = elementsCount;
+	}
+
+	public int getVersion() {
+		return this.version;
+	}
+
+	public long getBitSetSize() {
+		return this.bitSetSize;
+	}
+
+	public int getHashFunctionsCount() {
+		return this.hashFuncs;
+	}
+
+	public int getHashStrategyId() {
+		return this.hashStrategyId;
+	}
+
+	public int getBitPerElement() {
+		return this.bitsPerElement;
+	}
+
+	public long getExpectedNumberOfElements() {
+		return this.expectedNumberOfElements;
+	}
+
+	public long getElementsCount() {
+		return this.elementsCount;
+	}
+
+	public long getWordCount() {
+		return (this.bitSetSize + 63) >>> 6;
+	}
+}
@@ -0,0 +1,11 @@
+package src.uni.fmi.dsaproject.bloomfilter.io;
+
+/*
+ * Where FilterFormat.readBody puts a filter's words, a chunk at a time, so a
+ * filter is read straight into its storage.
+ */
+public interface WordSink {
+
+	// replaces words [from, from + count) with source[0 .. count)
+	void setWords(long from, long[] source, int count);
+}
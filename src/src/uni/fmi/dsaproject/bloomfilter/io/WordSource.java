@@ -0,0 +1,11 @@
+package src.uni.fmi.dsaproject.bloomfilter.io;
+
+/*
+ * Where FilterFormat.write takes a filter's words from, a chunk at a time, so
+ * a filter is written without first copying all of its bits into one array.
+ */
+public interface WordSource {
+
+	// copies words [from, from + count) into target[0 .. count)
+	void getWords(long from, long[] target, int count);
+}
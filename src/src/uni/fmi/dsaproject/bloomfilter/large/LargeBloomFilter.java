@@ -0,0 +1,256 @@
+package src.uni.fmi.dsaproject.bloomfilter.large;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import src.uni.fmi.dsaproject.bloomfilter.Filter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterFormat;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterHeader;
+import src.uni.fmi.dsaproject.bloomfilter.sizing.FilterSizing;
+
+/*
+ * Bloom filter with a long bit count, for filters beyond 2^31 bits. The bits
+ * are kept in pages of 2^20 words (8 MB) by default so no single array gets
+ * too large, and positions are derived from the full 64-bit hash.
+ */
+public class LargeBloomFilter<E> implements Filter<E> {
+	private static final int DEFAULT_PAGE_SHIFT = 20;
+
+	private final int pageShift;
+	private long[][] pages;
+	private int hashFuncs;
+	private int bitPerElement;
+	private long expectedNumberOfElements;
+	private long elementsInBloomFilter;
+	private long bitSetSize;
+	private HashStrategy hashStrategy;
+
+	private void setBit(long index) {
+		long word = index >>> 6;
+		this.pages[(int) (word >>> this.pageShift)][(int) word
+				& ((1 << this.pageShift) - 1)] |= 1L << index;
+	}
+
+	private boolean getBit(long index) {
+		long word = index >>> 6;
+		return (this.pages[(int) (word >>> this.pageShift)][(int) word
+				& ((1 << this.pageShift) - 1)] & (1L << index)) != 0;
+	}
+
+	private void add(byte[] data) {
+		long hash1 = this.hashStrategy.hash(data, 0, data.length);
+		long hash2 = HashStrategies.secondHash(hash1);
+		for (int i = 0; i < this.getHashFunctionsCount(); i++) {
+			this.setBit(HashStrategies.index(hash1, hash2, i, this.bitSetSize));
+		}
+	}
+
+	private boolean contains(byte[] data) {
+		long hash1 = this.hashStrategy.hash(data, 0, data.length);
+		long hash2 = HashStrategies.secondHash(hash1);
+		for (int i = 0; i < this.getHashFunctionsCount(); i++) {
+			if (!this.getBit(HashStrategies.index(hash1, hash2, i,
+					this.bitSetSize))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// pages of 2^pageShift words, smaller pages are mostly useful for tests
+	public LargeBloomFilter(int bitsPerElement, long expectedNumberOElements,
+			int hashFuncs, HashStrategy hashStrategy, int pageShift)
+			throws Exception {
+		if (expectedNumberOElements > Long.MAX_VALUE
+				/ Math.max(1, bitsPerElement)) {
+			throw new Exception("Bit set size too large");
+		}
+		if (pageShift < 0 || pageShift > 30) {
+			throw new Exception("Invalid page size");
+		}
+		this.pageShift = pageShift;
+		this.bitSetSize = expectedNumberOElements * bitsPerElement;
+		this.bitPerElement = bitsPerElement;
+		this.expectedNumberOfElements = expectedNumberOElements;
+		this.hashFuncs = hashFuncs;
+		this.elementsInBloomFilter = 0;
+		this.hashStrategy = hashStrategy;
+		this.pages = allocatePages(this.bitSetSize, pageShift);
+	}
+
+	public LargeBloomFilter(int bitsPerElement, long expectedNumberOElements,
+			int hashFuncs, HashStrategy hashStrategy) throws Exception {
+		this(bitsPerElement, expectedNumberOElements, hashFuncs, hashStrategy,
+				DEFAULT_PAGE_SHIFT);
+	}
+
+	// filter restored from its serialized form, see FilterFormat
+	private LargeBloomFilter(FilterHeader header) throws Exception {
+		if (header.getElementsCount() > header.getExpectedNumberOfElements()) {
+			throw new Exception("Bloom filter does not fit this format");
+		}
+		this.bitSetSize = header.getBitSetSize();
+		this.bitPerElement = header.getBitPerElement();
+		this.expectedNumberOfElements = header.getExpectedNumberOfElements();
+		this.hashFuncs = header.getHashFunctionsCount();
+		this.elementsInBloomFilter = header.getElementsCount();
+		this.hashStrategy = HashStrategies.forId(header.getHashStrategyId());
+		this.pageShift = DEFAULT_PAGE_SHIFT;
+		this.pages = allocatePages(this.bitSetSize, this.pageShift);
+	}
+
+	private static long[][] allocatePages(long bitSetSize, int pageShift) {
+		long words = (bitSetSize + 63) >>> 6;
+		long pageWords = 1L << pageShift;
+		long[][] pages = new long[(int) ((words + pageWords - 1)
+				>>> pageShift)][];
+		for (int i = 0; i < pages.length; i++) {
+			pages[i] = new long[(int) Math.min(pageWords, words
+					- ((long) i << pageShift))];
+		}
+		return pages;
+	}
+
+	public LargeBloomFilter(int bitsPerElement, long expectedNumberOElements,
+			int hashFuncs) throws Exception {
+		this(bitsPerElement, expectedNumberOElements, hashFuncs,
+				HashStrategies.XXHASH64);
+	}
+
+	public LargeBloomFilter(long bitSetSize, long expectedNumberOElements)
+			throws Exception {
+		this((int) (bitSetSize / expectedNumberOElements),
+				expectedNumberOElements, (int) Math
+						.round((bitSetSize / expectedNumberOElements)
+								* Math.log(2.0)));
+	}
+
+	public void add(E element) throws Exception {
+		if (this.elementsInBloomFilter >= this.expectedNumberOfElements) {
+			throw new Exception("Not enough space");
+		}
+		this.add(element.toString().getBytes(StandardCharsets.UTF_8));
+		this.elementsInBloomFilter++;
+	}
+
+	public boolean contains(E element) {
+		return this.contains(element.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	// streams the pages as they are, without assembling one big array
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		FilterFormat.write(channel, this.header(), this.pages);
+	}
+
+	public static <E> LargeBloomFilter<E> readFrom(ReadableByteChannel channel)
+			throws Exception {
+		FilterHeader header = FilterFormat.readHeader(channel);
+		LargeBloomFilter<E> bf = new LargeBloomFilter<>(header);
+		FilterFormat.readBody(channel, header, bf.pages);
+		return bf;
+	}
+
+	// reads from the buffer's position and leaves it after the filter
+	public static <E> LargeBloomFilter<E> readFrom(ByteBuffer buffer)
+			throws Exception {
+		FilterHeader header = FilterFormat.readHeader(buffer);
+		LargeBloomFilter<E> bf = new LargeBloomFilter<>(header);
+		FilterFormat.readBody(buffer, header, bf.pages);
+		return bf;
+	}
+
+	private FilterHeader header() {
+		return new FilterHeader(this.bitSetSize, this.hashFuncs,
+				this.hashStrategy.getId(), this.bitPerElement,
+				this.expectedNumberOfElements, this.elementsInBloomFilter);
+	}
+
+	public void clear() {
+		this.elementsInBloomFilter = 0;
+		for (long[] page : this.pages) {
+			Arrays.fill(page, 0L);
+		}
+	}
+
+	public double expectedFalsePositiveProbability() {
+		return getFalsePositiveProbability(this.expectedNumberOfElements);
+	}
+
+	public double getFalsePositiveProbability(double numberOfElements) {
+		return FilterSizing.falsePositiveProbability(this.bitSetSize,
+				this.getHashFunctionsCount(), numberOfElements);
+	}
+
+	public double getFalsePositiveProbability() {
+		return getFalsePositiveProbability(this.elementsInBloomFilter);
+	}
+
+	public long elementsCount() {
+		return this.elementsInBloomFilter;
+	}
+
+	public int getHashFunctionsCount() {
+		return this.hashFuncs;
+	}
+
+	public int getBitPerElement() {
+		return this.bitPerElement;
+	}
+
+	public long getBitSetSize() {
+		return this.bitSetSize;
+	}
+
+	public HashStrategy getHashStrategy() {
+		return this.hashStrategy;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		@SuppressWarnings("unchecked")
+		LargeBloomFilter<E> other = (LargeBloomFilter<E>) obj;
+		if (this.expectedNumberOfElements != other.expectedNumberOfElements) {
+			return false;
+		}
+		if (this.bitPerElement != other.bitPerElement) {
+			return false;
+		}
+		if (this.hashFuncs != other.hashFuncs) {
+			return false;
+		}
+		if (this.bitSetSize != other.bitSetSize) {
+			return false;
+		}
+		if (this.hashStrategy.getId() != other.hashStrategy.getId()) {
+			return false;
+		}
+		if (this.elementsInBloomFilter != other.elementsInBloomFilter) {
+			return false;
+		}
+		return Arrays.deepEquals(this.pages, other.pages);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		hash = 31 * hash + Arrays.deepHashCode(this.pages);
+		hash = 31 * hash + this.bitPerElement;
+		hash = 31 * hash + Long.hashCode(this.expectedNumberOfElements);
+		hash = 31 * hash + Long.hashCode(this.bitSetSize);
+		hash = 31 * hash + this.hashFuncs;
+		hash = 31 * hash + this.hashStrategy.getId();
+		return hash;
+	}
+}
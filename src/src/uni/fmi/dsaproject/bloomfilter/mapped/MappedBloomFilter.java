@@ -0,0 +1,101 @@
+package src.uni.fmi.dsaproject.bloomfilter.mapped;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import src.uni.fmi.dsaproject.bloomfilter.core.AbstractBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnels;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterHeader;
+import src.uni.fmi.dsaproject.bloomfilter.storage.MappedFileStorage;
+
+/*
+ * Bloom filter whose bits live in a memory-mapped file: the core filter on a
+ * MappedFileStorage with a header. The file starts with the FilterFormat
+ * header followed by the bit words (little-endian longs), so opening an
+ * existing filter only maps the file and the OS page cache loads the bits
+ * lazily on first access. Files written with FilterFormat can be opened as
+ * well, their checksum trailer is ignored. The element count is written to
+ * the header on force() and close().
+ */
+public class MappedBloomFilter<E> extends AbstractBloomFilter<E> implements
+		Closeable {
+	private final MappedFileStorage storage;
+
+	private MappedBloomFilter(MappedFileStorage storage) throws Exception {
+		this(storage, storage.readHeader());
+	}
+
+	private MappedBloomFilter(MappedFileStorage storage, FilterHeader header)
+			throws Exception {
+		super(storage, header.getExpectedNumberOfElements(), header
+				.getHashFunctionsCount(), HashStrategies.forId(header
+				.getHashStrategyId()), Funnels.TO_STRING);
+		if (header.getElementsCount() > header.getExpectedNumberOfElements()) {
+			throw new Exception("Corrupted bloom filter file");
+		}
+		this.storage = storage;
+		this.setElementsCount(header.getElementsCount());
+	}
+
+	// closes the storage when the filter cannot be built on it
+	private static <E> MappedBloomFilter<E> wrap(MappedFileStorage storage)
+			throws Exception {
+		try {
+			return new MappedBloomFilter<>(storage);
+		} catch (Exception e) {
+			storage.close();
+			throw e;
+		}
+	}
+
+	public static <E> MappedBloomFilter<E> create(Path file,
+			int bitsPerElement, int expectedNumberOElements, int hashFuncs,
+			HashStrategy hashStrategy) throws Exception {
+		return wrap(MappedFileStorage.create(file, new FilterHeader(
+				(long) expectedNumberOElements * bitsPerElement, hashFuncs,
+				hashStrategy.getId(), bitsPerElement, expectedNumberOElements,
+				0)));
+	}
+
+	public static <E> MappedBloomFilter<E> create(Path file,
+			int bitsPerElement, int expectedNumberOElements, int hashFuncs)
+			throws Exception {
+		return create(file, bitsPerElement, expectedNumberOElements,
+				hashFuncs, HashStrategies.XXHASH64);
+	}
+
+	public static <E> MappedBloomFilter<E> open(Path file, boolean readOnly)
+			throws Exception {
+		return wrap(MappedFileStorage.open(file, readOnly));
+	}
+
+	// writes the element count and the modified pages back to the file
+	public void force() throws IOException {
+		if (this.storage.isReadOnly()) {
+			return;
+		}
+		try {
+			this.storage.writeHeader(this.header());
+		} catch (Exception e) {
+			throw new IOException(e);
+		}
+		this.storage.force();
+	}
+
+	// the mapping itself is released once the filter is garbage collected
+	@Override
+	public void close() throws IOException {
+		try {
+			this.force();
+		} finally {
+			this.storage.close();
+		}
+	}
+
+	public boolean isReadOnly() {
+		return this.storage.isReadOnly();
+	}
+}
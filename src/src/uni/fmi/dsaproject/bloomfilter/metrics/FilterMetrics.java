@@ -0,0 +1,210 @@
+package src.uni.fmi.dsaproject.bloomfilter.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * Live statistics for a filter. The counters are LongAdders so recording
+ * never contends; the fill figures are computed from a popcount of the
+ * backing bits when they are read. Latency is measured only when histograms
+ * are on or a listener is registered, otherwise no clock is read at all.
+ *
+ * Filters keep a null metrics field until metrics are enabled, so a filter
+ * without metrics pays a single null check per call.
+ */
+public class FilterMetrics implements FilterMetricsMBean {
+	public static final String DOMAIN = "uni.fmi.dsaproject.bloomfilter";
+
+	private final MetricsSource source;
+	private final LongAdder adds;
+	private final LongAdder queries;
+	private final LongAdder positives;
+	private final LatencyHistogram addLatency;
+	private final LatencyHistogram queryLatency;
+	private final List<MetricsListener> listeners;
+	private volatile boolean timed;
+	private ObjectName objectName;
+
+	public FilterMetrics(MetricsSource source, boolean latencyHistograms) {
+		this.source = source;
+		this.adds = new LongAdder();
+		this.queries = new LongAdder();
+		this.positives = new LongAdder();
+		this.addLatency = latencyHistograms ? new LatencyHistogram() : null;
+		this.queryLatency = latencyHistograms ? new LatencyHistogram() : null;
+		this.listeners = new CopyOnWriteArrayList<MetricsListener>();
+		this.timed = latencyHistograms;
+	}
+
+	public FilterMetrics(MetricsSource source) {
+		this(source, false);
+	}
+
+	// start time for a record call, 0 when nobody needs the latency
+	public long start() {
+		return this.timed ? System.nanoTime() : 0;
+	}
+
+	public void recordAdd(long start) {
+		this.adds.increment();
+		if (start != 0) {
+			long latency = System.nanoTime() - start;
+			if (this.addLatency != null) {
+				this.addLatency.record(latency);
+			}
+			for (MetricsListener listener : this.listeners) {
+				listener.added(latency);
+			}
+		}
+	}
+
+	public void recordQuery(boolean positive, long start) {
+		this.queries.increment();
+		if (positive) {
+			this.positives.increment();
+		}
+		if (start != 0) {
+			long latency = System.nanoTime() - start;
+			if (this.queryLatency != null) {
+				this.queryLatency.record(latency);
+			}
+			for (MetricsListener listener : this.listeners) {
+				listener.queried(positive, latency);
+			}
+		}
+	}
+
+	// batch operations are counted but not timed per element
+	public void recordAdds(int count) {
+		this.adds.add(count);
+	}
+
+	public void recordQueries(int count, int positiveCount) {
+		this.queries.add(count);
+		this.positives.add(positiveCount);
+	}
+
+	public void addListener(MetricsListener listener) {
+		this.listeners.add(listener);
+		this.timed = true;
+	}
+
+	public void removeListener(MetricsListener listener) {
+		this.listeners.remove(listener);
+		this.timed = this.addLatency != null || !this.listeners.isEmpty();
+	}
+
+	public LatencyHistogram getAddLatency() {
+		return this.addLatency;
+	}
+
+	public LatencyHistogram getQueryLatency() {
+		return this.queryLatency;
+	}
+
+	@Override
+	public long getAdds() {
+		return this.adds.sum();
+	}
+
+	@Override
+	public long getQueries() {
+		return this.queries.sum();
+	}
+
+	@Override
+	public long getPositives() {
+		return this.positives.sum();
+	}
+
+	@Override
+	public long getElementsCount() {
+		return this.source.elementsCount();
+	}
+
+	@Override
+	public long getBitSetSize() {
+		return this.source.bitSetSize();
+	}
+
+	// fraction of set bits, approximate while writers are active
+	@Override
+	public double getFillRatio() {
+		return (double) this.source.cardinality() / this.source.bitSetSize();
+	}
+
+	@Override
+	public double getEstimatedCardinality() {
+		// n = -(m / k) ln(1 - X / m)
+		double m = this.source.bitSetSize();
+		return -(m / this.source.hashFunctionsCount())
+				* Math.log(1 - this.source.cardinality() / m);
+	}
+
+	// the false positive rate the filter has now, from its actual fill
+	@Override
+	public double getEstimatedFalsePositiveProbability() {
+		return Math.pow(this.getFillRatio(),
+				this.source.hashFunctionsCount());
+	}
+
+	@Override
+	public double getAddLatencyMeanNanos() {
+		return this.addLatency == null ? -1 : this.addLatency.mean();
+	}
+
+	@Override
+	public long getAddLatencyP99Nanos() {
+		return this.addLatency == null ? -1 : this.addLatency
+				.percentile(0.99);
+	}
+
+	@Override
+	public double getQueryLatencyMeanNanos() {
+		return this.queryLatency == null ? -1 : this.queryLatency.mean();
+	}
+
+	@Override
+	public long getQueryLatencyP99Nanos() {
+		return this.queryLatency == null ? -1 : this.queryLatency
+				.percentile(0.99);
+	}
+
+	@Override
+	public void reset() {
+		this.adds.reset();
+		this.queries.reset();
+		this.positives.reset();
+		if (this.addLatency != null) {
+			this.addLatency.reset();
+			this.queryLatency.reset();
+		}
+	}
+
+	public synchronized ObjectName register(String name) throws Exception {
+		if (this.objectName != null) {
+			throw new Exception("Metrics already registered");
+		}
+		ObjectName objectName = new ObjectName(DOMAIN
+				+ ":type=BloomFilter,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+				objectName);
+		this.objectName = objectName;
+		return objectName;
+	}
+
+	public synchronized void unregister() throws Exception {
+		if (this.objectName != null) {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			if (server.isRegistered(this.objectName)) {
+				server.unregisterMBean(this.objectName);
+			}
+			this.objectName = null;
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package src.uni.fmi.dsaproject.bloomfilter.metrics;
+
+public interface FilterMetricsMBean {
+
+	long getAdds();
+
+	long getQueries();
+
+	long getPositives();
+
+	long getElementsCount();
+
+	long getBitSetSize();
+
+	double getFillRatio();
+
+	double getEstimatedCardinality();
+
+	double getEstimatedFalsePositiveProbability();
+
+	double getAddLatencyMeanNanos();
+
+	long getAddLatencyP99Nanos();
+
+	double getQueryLatencyMeanNanos();
+
+	long getQueryLatencyP99Nanos();
+
+	void reset();
+}
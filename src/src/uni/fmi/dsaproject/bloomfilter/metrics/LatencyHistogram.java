@@ -0,0 +1,70 @@
+package src.uni.fmi.dsaproject.bloomfilter.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Lock-free histogram with one bucket per power of two nanoseconds. Bucket b
+ * holds values in [2^(b-1), 2^b), so percentiles are upper bounds accurate
+ * to a factor of two, which is enough to tell a cache hit from a miss.
+ */
+public class LatencyHistogram {
+	private static final int BUCKETS = 64;
+
+	private final AtomicLongArray buckets;
+	private final LongAdder count;
+	private final LongAdder total;
+
+	public LatencyHistogram() {
+		this.buckets = new AtomicLongArray(BUCKETS);
+		this.count = new LongAdder();
+		this.total = new LongAdder();
+	}
+
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		this.buckets.incrementAndGet(Math.min(BUCKETS - 1,
+				BUCKETS - Long.numberOfLeadingZeros(nanos)));
+		this.count.increment();
+		this.total.add(nanos);
+	}
+
+	public long count() {
+		return this.count.sum();
+	}
+
+	public double mean() {
+		long n = this.count.sum();
+		return n == 0 ? 0 : (double) this.total.sum() / n;
+	}
+
+	// upper bound of the bucket holding the given quantile, 0 when empty
+	public long percentile(double quantile) {
+		long n = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			n += this.buckets.get(i);
+		}
+		if (n == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(quantile * n);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += this.buckets.get(i);
+			if (seen >= rank && seen > 0) {
+				return i == 0 ? 0 : 1L << Math.min(i, 62);
+			}
+		}
+		return 1L << 62;
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			this.buckets.set(i, 0);
+		}
+		this.count.reset();
+		this.total.reset();
+	}
+}
@@ -0,0 +1,15 @@
+package src.uni.fmi.dsaproject.bloomfilter.metrics;
+
+/*
+ * Called on the thread doing the add or contains, so implementations must be
+ * cheap and thread-safe. Latencies are in nanoseconds and cover the bit
+ * probes only, not hashing the key.
+ */
+public interface MetricsListener {
+
+	default void added(long latencyNanos) {
+	}
+
+	default void queried(boolean positive, long latencyNanos) {
+	}
+}
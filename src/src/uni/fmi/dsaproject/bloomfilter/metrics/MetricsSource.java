@@ -0,0 +1,17 @@
+package src.uni.fmi.dsaproject.bloomfilter.metrics;
+
+/*
+ * The parts of a filter FilterMetrics reads when asked for fill figures.
+ * cardinality() is a popcount over the backing words and is called only on
+ * demand, never from add or contains.
+ */
+public interface MetricsSource {
+
+	long bitSetSize();
+
+	long cardinality();
+
+	int hashFunctionsCount();
+
+	long elementsCount();
+}
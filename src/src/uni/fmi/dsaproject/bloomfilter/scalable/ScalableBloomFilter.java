@@ -0,0 +1,128 @@
+package src.uni.fmi.dsaproject.bloomfilter.scalable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import src.uni.fmi.dsaproject.bloomfilter.Filter;
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.sizing.FilterSizing;
+
+/*
+ * Scalable bloom filter (Almeida et al.): when the current stage is full a new
+ * one is started with growthFactor times the capacity and tighteningRatio
+ * times the false positive probability. Stage i gets p * (1 - r) * r^i, so
+ * the compound probability stays below p however many stages are added.
+ */
+public class ScalableBloomFilter<E> implements Filter<E> {
+	public static final int DEFAULT_GROWTH_FACTOR = 2;
+	public static final double DEFAULT_TIGHTENING_RATIO = 0.85;
+
+	private List<BloomFilter<E>> stages;
+	private int initialCapacity;
+	private double falsePositiveProbability;
+	private int growthFactor;
+	private double tighteningRatio;
+	private HashStrategy hashStrategy;
+
+	public ScalableBloomFilter(int initialCapacity,
+			double falsePositiveProbability, int growthFactor,
+			double tighteningRatio, HashStrategy hashStrategy) throws Exception {
+		if (initialCapacity <= 0) {
+			throw new Exception("Initial capacity must be positive");
+		}
+		if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+			throw new Exception("False positive probability must be in (0, 1)");
+		}
+		if (growthFactor < 1 || tighteningRatio <= 0 || tighteningRatio >= 1) {
+			throw new Exception("Invalid growth parameters");
+		}
+		this.initialCapacity = initialCapacity;
+		this.falsePositiveProbability = falsePositiveProbability;
+		this.growthFactor = growthFactor;
+		this.tighteningRatio = tighteningRatio;
+		this.hashStrategy = hashStrategy;
+		this.stages = new ArrayList<>();
+		this.addStage();
+	}
+
+	public ScalableBloomFilter(int initialCapacity,
+			double falsePositiveProbability) throws Exception {
+		this(initialCapacity, falsePositiveProbability, DEFAULT_GROWTH_FACTOR,
+				DEFAULT_TIGHTENING_RATIO, HashStrategies.XXHASH64);
+	}
+
+	private void addStage() throws Exception {
+		int stage = this.stages.size();
+		double p = this.falsePositiveProbability * (1 - this.tighteningRatio)
+				* Math.pow(this.tighteningRatio, stage);
+		long capacity = this.initialCapacity
+				* (long) Math.pow(this.growthFactor, stage);
+		FilterSizing sizing = FilterSizing.optimal(capacity, p);
+		if (sizing.getBitSetSize() > Integer.MAX_VALUE) {
+			// m grows linearly with n, leave a word of room for the rounding
+			capacity = (long) (capacity * ((Integer.MAX_VALUE - 64) / sizing
+					.getOptimalBitSetSize()));
+		}
+		this.stages.add(BloomFilter.<E> create(capacity, p, this.hashStrategy));
+	}
+
+	private BloomFilter<E> currentStage() {
+		return this.stages.get(this.stages.size() - 1);
+	}
+
+	public void add(E element) throws Exception {
+		BloomFilter<E> stage = this.currentStage();
+		if (stage.elementsCount() == stage.expectedNumberOfElements()) {
+			this.addStage();
+			stage = this.currentStage();
+		}
+		stage.add(element);
+	}
+
+	// newest stages are checked first since they hold the most elements
+	public boolean contains(E element) {
+		for (int i = this.stages.size() - 1; i >= 0; i--) {
+			if (this.stages.get(i).contains(element)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void clear() throws Exception {
+		this.stages.clear();
+		this.addStage();
+	}
+
+	// upper bound of the compound probability, whatever the number of stages
+	public double expectedFalsePositiveProbability() {
+		return this.falsePositiveProbability;
+	}
+
+	// 1 - (1 - p0) * (1 - p1) * ... over the current stages
+	public double getFalsePositiveProbability() {
+		double none = 1;
+		for (BloomFilter<E> stage : this.stages) {
+			none *= 1 - stage.getFalsePositiveProbability();
+		}
+		return 1 - none;
+	}
+
+	public long elementsCount() {
+		long count = 0;
+		for (BloomFilter<E> stage : this.stages) {
+			count += stage.elementsCount();
+		}
+		return count;
+	}
+
+	public int getStageCount() {
+		return this.stages.size();
+	}
+
+	public HashStrategy getHashStrategy() {
+		return this.hashStrategy;
+	}
+}
@@ -0,0 +1,221 @@
+package src.uni.fmi.dsaproject.bloomfilter.server;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Blocking client for FilterServer. Connections are pooled: each call
+ * borrows one, so up to poolSize threads talk to the server at once. Large
+ * key lists are split into requests of batchSize keys which are all written
+ * before the first response is read, so they travel pipelined on one
+ * connection.
+ */
+public class FilterClient implements Closeable {
+	public static final int DEFAULT_POOL_SIZE = 4;
+	public static final int DEFAULT_BATCH_SIZE = 1024;
+
+	private final InetSocketAddress address;
+	private final BlockingQueue<SocketChannel> idle;
+	private final Semaphore permits;
+	private final int batchSize;
+	private final AtomicInteger requestIds;
+	private volatile boolean closed;
+
+	public FilterClient(InetSocketAddress address, int poolSize, int batchSize)
+			throws Exception {
+		if (poolSize <= 0 || batchSize <= 0) {
+			throw new Exception("Invalid client parameters");
+		}
+		this.address = address;
+		this.idle = new ArrayBlockingQueue<>(poolSize);
+		this.permits = new Semaphore(poolSize);
+		this.batchSize = batchSize;
+		this.requestIds = new AtomicInteger();
+	}
+
+	public FilterClient(String host, int port) throws Exception {
+		this(new InetSocketAddress(host, port), DEFAULT_POOL_SIZE,
+				DEFAULT_BATCH_SIZE);
+	}
+
+	private SocketChannel borrow() throws Exception {
+		if (this.closed) {
+			throw new Exception("Client is closed");
+		}
+		this.permits.acquire();
+		SocketChannel channel = this.idle.poll();
+		if (channel != null) {
+			return channel;
+		}
+		try {
+			channel = SocketChannel.open(this.address);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			return channel;
+		} catch (IOException e) {
+			this.permits.release();
+			throw e;
+		}
+	}
+
+	// a connection that failed mid-request is closed, not reused
+	private void giveBack(SocketChannel channel, boolean healthy) {
+		if (!healthy || this.closed || !this.idle.offer(channel)) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// already broken
+			}
+		}
+		this.permits.release();
+	}
+
+	private static void readFully(SocketChannel channel, ByteBuffer buffer)
+			throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException("Connection closed by the server");
+			}
+		}
+	}
+
+	private ByteBuffer readResponse(SocketChannel channel, int requestId)
+			throws Exception {
+		ByteBuffer length = ByteBuffer.allocate(4);
+		readFully(channel, length);
+		int size = length.getInt(0);
+		if (size < 0 || size > FilterProtocol.MAX_FRAME) {
+			throw new IOException("Bad frame length: " + size);
+		}
+		ByteBuffer frame = ByteBuffer.allocate(size);
+		readFully(channel, frame);
+		frame.flip();
+		byte status = frame.get();
+		int id = frame.getInt();
+		if (id != requestId) {
+			throw new IOException("Response out of order");
+		}
+		if (status != FilterProtocol.OK) {
+			byte[] message = new byte[frame.getShort()];
+			frame.get(message);
+			throw new Exception(new String(message, StandardCharsets.UTF_8));
+		}
+		return frame;
+	}
+
+	// sends every batch, then reads the responses in the same order
+	private List<ByteBuffer> call(byte opcode, String filter, List<byte[]> keys)
+			throws Exception {
+		byte[] name = filter.getBytes(StandardCharsets.UTF_8);
+		List<ByteBuffer> responses = new ArrayList<>();
+		SocketChannel channel = this.borrow();
+		boolean healthy = false;
+		try {
+			int batches = Math.max(1, (keys.size() + this.batchSize - 1)
+					/ this.batchSize);
+			int[] ids = new int[batches];
+			for (int b = 0; b < batches; b++) {
+				int from = b * this.batchSize;
+				int to = Math.min(keys.size(), from + this.batchSize);
+				ids[b] = this.requestIds.incrementAndGet();
+				ByteBuffer request = ByteBuffer.allocate(FilterProtocol
+						.requestSize(name, keys, from, to));
+				FilterProtocol.writeRequest(request, opcode, ids[b], name,
+						keys, from, to);
+				request.flip();
+				while (request.hasRemaining()) {
+					channel.write(request);
+				}
+			}
+			Exception failure = null;
+			for (int b = 0; b < batches; b++) {
+				try {
+					responses.add(this.readResponse(channel, ids[b]));
+				} catch (IOException e) {
+					throw e;
+				} catch (Exception e) {
+					// keep reading so the connection stays in step
+					if (failure == null) {
+						failure = e;
+					}
+				}
+			}
+			healthy = true;
+			if (failure != null) {
+				throw failure;
+			}
+			return responses;
+		} finally {
+			this.giveBack(channel, healthy);
+		}
+	}
+
+	private static List<byte[]> utf8(String... keys) {
+		List<byte[]> bytes = new ArrayList<>(keys.length);
+		for (String key : keys) {
+			bytes.add(key.getBytes(StandardCharsets.UTF_8));
+		}
+		return bytes;
+	}
+
+	// returns the number of keys added
+	public int add(String filter, List<byte[]> keys) throws Exception {
+		int added = 0;
+		for (ByteBuffer response : this.call(FilterProtocol.ADD, filter, keys)) {
+			added += response.getInt();
+		}
+		return added;
+	}
+
+	public int add(String filter, String... keys) throws Exception {
+		return this.add(filter, utf8(keys));
+	}
+
+	public boolean[] contains(String filter, List<byte[]> keys)
+			throws Exception {
+		boolean[] result = new boolean[keys.size()];
+		int next = 0;
+		for (ByteBuffer response : this.call(FilterProtocol.CONTAINS, filter,
+				keys)) {
+			int count = response.getInt();
+			for (int i = 0; i < count; i++) {
+				result[next++] = (response.get(response.position() + (i >>> 3)) & (1 << (i & 7))) != 0;
+			}
+		}
+		return result;
+	}
+
+	public boolean[] contains(String filter, String... keys) throws Exception {
+		return this.contains(filter, utf8(keys));
+	}
+
+	public boolean contains(String filter, String key) throws Exception {
+		return this.contains(filter, Arrays.asList(key
+				.getBytes(StandardCharsets.UTF_8)))[0];
+	}
+
+	@Override
+	public void close() {
+		this.closed = true;
+		SocketChannel channel;
+		while ((channel = this.idle.poll()) != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				// closing anyway
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package src.uni.fmi.dsaproject.bloomfilter.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/*
+ * Wire format of the filter server, big-endian. Every message is a frame:
+ *
+ *   int    length of the rest of the frame
+ *
+ * Request:
+ *   byte   opcode (ADD or CONTAINS)
+ *   int    request id, echoed in the response
+ *   short  filter name length, then the name in UTF-8
+ *   int    key count, then every key as int length + bytes
+ *
+ * Response:
+ *   byte   status (OK or ERROR)
+ *   int    request id
+ *   OK, ADD:      int number of keys added
+ *   OK, CONTAINS: int key count, then one bit per key, LSB first
+ *   ERROR:        short message length, then the message in UTF-8
+ *
+ * A key is hashed as its raw bytes, so a string key sent as UTF-8 matches
+ * add(String) / contains(String) on a filter using Funnels.TO_STRING.
+ * Requests on one connection are answered in order and may be pipelined.
+ */
+public final class FilterProtocol {
+	public static final byte ADD = 1;
+	public static final byte CONTAINS = 2;
+
+	public static final byte OK = 0;
+	public static final byte ERROR = 1;
+
+	public static final int MAX_FRAME = 16 << 20;
+
+	private FilterProtocol() {
+	}
+
+	public static int requestSize(byte[] name, List<byte[]> keys, int from,
+			int to) {
+		int size = 4 + 1 + 4 + 2 + name.length + 4;
+		for (int i = from; i < to; i++) {
+			size += 4 + keys.get(i).length;
+		}
+		return size;
+	}
+
+	// the whole frame, length prefix included
+	public static void writeRequest(ByteBuffer buffer, byte opcode,
+			int requestId, byte[] name, List<byte[]> keys, int from, int to) {
+		buffer.putInt(requestSize(name, keys, from, to) - 4);
+		buffer.put(opcode);
+		buffer.putInt(requestId);
+		buffer.putShort((short) name.length);
+		buffer.put(name);
+		buffer.putInt(to - from);
+		for (int i = from; i < to; i++) {
+			byte[] key = keys.get(i);
+			buffer.putInt(key.length);
+			buffer.put(key);
+		}
+	}
+
+	public static ByteBuffer addedResponse(int requestId, int added) {
+		ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + 4 + 4);
+		buffer.putInt(buffer.capacity() - 4).put(OK).putInt(requestId)
+				.putInt(added);
+		buffer.flip();
+		return buffer;
+	}
+
+	public static ByteBuffer containsResponse(int requestId, boolean[] result) {
+		byte[] bits = new byte[(result.length + 7) >>> 3];
+		for (int i = 0; i < result.length; i++) {
+			if (result[i]) {
+				bits[i >>> 3] |= 1 << (i & 7);
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + 4 + 4 + bits.length);
+		buffer.putInt(buffer.capacity() - 4).put(OK).putInt(requestId)
+				.putInt(result.length).put(bits);
+		buffer.flip();
+		return buffer;
+	}
+
+	public static ByteBuffer errorResponse(int requestId, String message) {
+		byte[] text = message == null ? new byte[0] : message
+				.getBytes(StandardCharsets.UTF_8);
+		int length = Math.min(text.length, Short.MAX_VALUE);
+		ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + 4 + 2 + length);
+		buffer.putInt(buffer.capacity() - 4).put(ERROR).putInt(requestId)
+				.putShort((short) length).put(text, 0, length);
+		buffer.flip();
+		return buffer;
+	}
+}
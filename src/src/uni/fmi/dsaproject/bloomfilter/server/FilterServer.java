@@ -0,0 +1,267 @@
+package src.uni.fmi.dsaproject.bloomfilter.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+
+/*
+ * Serves named bloom filters over FilterProtocol. One selector thread does
+ * all the I/O and applies every request itself, so the hosted filters need
+ * no thread safety as long as nothing else writes to them. A request
+ * touching many keys is one frame and one filter lookup per key, without
+ * copying the keys out of the read buffer.
+ */
+public class FilterServer implements Closeable {
+	private static final int READ_BUFFER = 64 << 10;
+
+	private static final class Connection {
+		ByteBuffer in = ByteBuffer.allocate(READ_BUFFER);
+		final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+	}
+
+	private final Map<String, BloomFilter<?>> filters;
+	private final ServerSocketChannel server;
+	private final Selector selector;
+	private final Thread thread;
+	private volatile boolean running;
+
+	public FilterServer(InetSocketAddress address) throws IOException {
+		this.filters = new ConcurrentHashMap<>();
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		this.server.bind(address);
+		this.server.configureBlocking(false);
+		this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+		this.thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				FilterServer.this.serve();
+			}
+		}, "bloomfilter-server");
+		this.thread.setDaemon(true);
+	}
+
+	// port 0 picks a free port, see getPort()
+	public FilterServer(int port) throws IOException {
+		this(new InetSocketAddress(port));
+	}
+
+	public void register(String name, BloomFilter<?> filter) {
+		this.filters.put(name, filter);
+	}
+
+	public BloomFilter<?> unregister(String name) {
+		return this.filters.remove(name);
+	}
+
+	public int getPort() {
+		return this.server.socket().getLocalPort();
+	}
+
+	public FilterServer start() {
+		this.running = true;
+		this.thread.start();
+		return this;
+	}
+
+	private void serve() {
+		while (this.running) {
+			try {
+				this.selector.select();
+			} catch (IOException e) {
+				break;
+			}
+			Iterator<SelectionKey> keys = this.selector.selectedKeys()
+					.iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				try {
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						this.accept();
+					}
+					if (key.isValid() && key.isReadable()) {
+						this.read(key);
+					}
+					if (key.isValid() && key.isWritable()) {
+						this.write(key);
+					}
+				} catch (IOException e) {
+					this.drop(key);
+				}
+			}
+		}
+		for (SelectionKey key : this.selector.keys()) {
+			this.drop(key);
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel = this.server.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		channel.register(this.selector, SelectionKey.OP_READ, new Connection());
+	}
+
+	private void drop(SelectionKey key) {
+		key.cancel();
+		try {
+			key.channel().close();
+		} catch (IOException e) {
+			// nothing left to do with a broken connection
+		}
+	}
+
+	private void read(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+		SocketChannel channel = (SocketChannel) key.channel();
+		if (channel.read(connection.in) < 0) {
+			this.drop(key);
+			return;
+		}
+		ByteBuffer in = connection.in;
+		in.flip();
+		// answer every complete frame, pipelined requests included
+		while (in.remaining() >= 4) {
+			int length = in.getInt(in.position());
+			if (length < 0 || length > FilterProtocol.MAX_FRAME) {
+				throw new IOException("Bad frame length: " + length);
+			}
+			if (in.remaining() < 4 + length) {
+				break;
+			}
+			int end = in.position() + 4 + length;
+			in.position(in.position() + 4);
+			connection.out.add(this.handle(in, end));
+			in.position(end);
+		}
+		in.compact();
+		// make room for a frame larger than the buffer
+		if (in.position() >= 4) {
+			int needed = 4 + in.getInt(0);
+			if (needed > in.capacity()) {
+				ByteBuffer larger = ByteBuffer.allocate(needed);
+				in.flip();
+				larger.put(in);
+				connection.in = larger;
+			}
+		}
+		if (!connection.out.isEmpty()) {
+			this.write(key);
+		}
+	}
+
+	private void write(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+		SocketChannel channel = (SocketChannel) key.channel();
+		while (!connection.out.isEmpty()) {
+			ByteBuffer buffer = connection.out.peek();
+			channel.write(buffer);
+			if (buffer.hasRemaining()) {
+				break;
+			}
+			connection.out.poll();
+		}
+		key.interestOps(connection.out.isEmpty() ? SelectionKey.OP_READ
+				: SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+	}
+
+	private int keyLength(ByteBuffer in, int end) throws Exception {
+		int length = in.getInt();
+		if (length < 0 || in.position() + length > end) {
+			throw new Exception("Bad key length");
+		}
+		return length;
+	}
+
+	// fails unless the frame still holds the given number of bytes
+	private void need(ByteBuffer in, int end, long bytes) throws Exception {
+		if (bytes < 0 || in.position() + bytes > end) {
+			throw new Exception("Malformed frame");
+		}
+	}
+
+	private ByteBuffer handle(ByteBuffer in, int end) {
+		int requestId = 0;
+		try {
+			this.need(in, end, 1 + 4 + 2);
+			byte opcode = in.get();
+			requestId = in.getInt();
+			short nameLength = in.getShort();
+			this.need(in, end, nameLength + 4L);
+			byte[] name = new byte[nameLength];
+			in.get(name);
+			BloomFilter<?> filter = this.filters.get(new String(name,
+					StandardCharsets.UTF_8));
+			if (filter == null) {
+				return FilterProtocol.errorResponse(requestId,
+						"Unknown filter: " + new String(name,
+								StandardCharsets.UTF_8));
+			}
+			int count = in.getInt();
+			// every key takes at least its 4 byte length
+			if (count < 0 || count > (end - in.position()) / 4) {
+				return FilterProtocol.errorResponse(requestId,
+						"Bad key count");
+			}
+			byte[] array = in.array();
+			if (opcode == FilterProtocol.ADD) {
+				int added = 0;
+				for (int i = 0; i < count; i++) {
+					int length = this.keyLength(in, end);
+					filter.add(array, in.arrayOffset() + in.position(), length);
+					in.position(in.position() + length);
+					added++;
+				}
+				return FilterProtocol.addedResponse(requestId, added);
+			}
+			if (opcode == FilterProtocol.CONTAINS) {
+				boolean[] result = new boolean[count];
+				for (int i = 0; i < count; i++) {
+					int length = this.keyLength(in, end);
+					result[i] = filter.contains(array, in.arrayOffset()
+							+ in.position(), length);
+					in.position(in.position() + length);
+				}
+				return FilterProtocol.containsResponse(requestId, result);
+			}
+			return FilterProtocol.errorResponse(requestId, "Unknown opcode: "
+					+ opcode);
+		} catch (Exception e) {
+			// malformed requests must not read into the next frame
+			return FilterProtocol.errorResponse(requestId, e.getMessage());
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.running = false;
+		this.selector.wakeup();
+		try {
+			this.thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.server.close();
+		this.selector.close();
+	}
+}
@@ -0,0 +1,155 @@
+package src.uni.fmi.dsaproject.bloomfilter.sizing;
+
+/*
+ * Memory-optimal bloom filter parameters for n expected insertions and a
+ * target false positive probability p, computed in doubles:
+ *
+ *   m = -n ln(p) / ln(2)^2, rounded up to whole 64-bit words
+ *   k = round(-log2(p)), at least 1
+ *
+ * k is taken from p, i.e. from the unrounded m, and not from the rounded
+ * one: for tiny n a whole word is many bits per element and would ask for
+ * dozens of hash functions. The rounding of m only ever adds bits, so the
+ * expected probability of the result is at most p (up to the rounding of k).
+ */
+public final class FilterSizing {
+	private static final double LN2 = Math.log(2);
+
+	private final long expectedInsertions;
+	private final double targetFalsePositiveProbability;
+	private final double optimalBitSetSize;
+	private final long bitSetSize;
+	private final int hashFuncs;
+
+	private FilterSizing(long expectedInsertions,
+			double targetFalsePositiveProbability, double optimalBitSetSize,
+			long bitSetSize, int hashFuncs) {
+		this.expectedInsertions = expectedInsertions;
+		this.targetFalsePositiveProbability = targetFalsePositiveProbability;
+		this.optimalBitSetSize = optimalBitSetSize;
+		this.bitSetSize = bitSetSize;
+		this.hashFuncs = hashFuncs;
+	}
+
+	public static FilterSizing optimal(long expectedInsertions,
+			double falsePositiveProbability) throws Exception {
+		if (expectedInsertions <= 0) {
+			throw new Exception("Expected insertions must be positive");
+		}
+		if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+			throw new Exception("False positive probability must be in (0, 1)");
+		}
+		double optimal = -expectedInsertions
+				* Math.log(falsePositiveProbability) / (LN2 * LN2);
+		long words = (long) Math.ceil(optimal / 64);
+		if (words > Long.MAX_VALUE / 64) {
+			throw new Exception("Bit set size too large");
+		}
+		long bitSetSize = Math.max(1, words) * 64;
+		int hashFuncs = Math.max(1, (int) Math.round(-Math
+				.log(falsePositiveProbability) / LN2));
+		return new FilterSizing(expectedInsertions, falsePositiveProbability,
+				optimal, bitSetSize, hashFuncs);
+	}
+
+	// best k for a bit set size that is already fixed
+	public static int optimalHashFunctions(long bitSetSize,
+			long expectedInsertions) {
+		return Math.max(1, (int) Math.round((double) bitSetSize
+				/ expectedInsertions * LN2));
+	}
+
+	// (1 - e^(-k * n / m)) ^ k
+	public static double falsePositiveProbability(long bitSetSize,
+			int hashFuncs, double insertions) {
+		return Math.pow(1 - Math.exp(-hashFuncs * insertions / bitSetSize),
+				hashFuncs);
+	}
+
+	public long getExpectedInsertions() {
+		return this.expectedInsertions;
+	}
+
+	public double getTargetFalsePositiveProbability() {
+		return this.targetFalsePositiveProbability;
+	}
+
+	// the real-valued m before rounding to words
+	public double getOptimalBitSetSize() {
+		return this.optimalBitSetSize;
+	}
+
+	public long getBitSetSize() {
+		return this.bitSetSize;
+	}
+
+	public long getWordCount() {
+		return this.bitSetSize / 64;
+	}
+
+	public int getHashFunctionsCount() {
+		return this.hashFuncs;
+	}
+
+	public double getBitsPerElement() {
+		return (double) this.bitSetSize / this.expectedInsertions;
+	}
+
+	public double getExpectedFalsePositiveProbability() {
+		return falsePositiveProbability(this.bitSetSize, this.hashFuncs,
+				this.expectedInsertions);
+	}
+
+	// heap taken by the bits of a BitSet / long[] backed filter
+	public long getBitSetBytes() {
+		return this.bitSetSize / 8;
+	}
+
+	// the same filter backed by boolean[], one byte per bit
+	public long getBooleanArrayBytes() {
+		return this.bitSetSize;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("n=%d, target p=%.6g: m=%d bits (%d words, "
+				+ "%d bytes; %d bytes as boolean[]), k=%d, "
+				+ "%.2f bits/element, expected p=%.6g",
+				this.expectedInsertions, this.targetFalsePositiveProbability,
+				this.bitSetSize, this.getWordCount(), this.getBitSetBytes(),
+				this.getBooleanArrayBytes(), this.hashFuncs,
+				this.getBitsPerElement(),
+				this.getExpectedFalsePositiveProbability());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		FilterSizing other = (FilterSizing) obj;
+		if (this.expectedInsertions != other.expectedInsertions) {
+			return false;
+		}
+		if (this.bitSetSize != other.bitSetSize) {
+			return false;
+		}
+		if (this.hashFuncs != other.hashFuncs) {
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		hash = 31 * hash
+				+ (int) (this.expectedInsertions ^ (this.expectedInsertions >>> 32));
+		hash = 31 * hash + (int) (this.bitSetSize ^ (this.bitSetSize >>> 32));
+		hash = 31 * hash + this.hashFuncs;
+		return hash;
+	}
+}
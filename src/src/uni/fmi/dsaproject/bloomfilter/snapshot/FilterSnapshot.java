@@ -0,0 +1,116 @@
+package src.uni.fmi.dsaproject.bloomfilter.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import src.uni.fmi.dsaproject.bloomfilter.core.AbstractBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnel;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.storage.LongArrayStorage;
+
+/*
+ * Immutable copy of a bloom filter's bits. The words are held by a core
+ * filter on a LongArrayStorage that is never written after construction and
+ * never handed out, so any number of threads can query a snapshot without
+ * locks: contains is a handful of plain array reads, and the primitive and
+ * byte key variants allocate nothing (TO_STRING encodes the string first). A
+ * snapshot lives as long as someone holds it.
+ */
+public final class FilterSnapshot<E> {
+	private final Frozen<E> filter;
+
+	// the core filter over the copied words; only ever queried
+	private static final class Frozen<E> extends AbstractBloomFilter<E> {
+
+		Frozen(long[] words, int bitSetSize, int hashFuncs,
+				long elementsInBloomFilter, HashStrategy hashStrategy,
+				Funnel<? super E> funnel) throws Exception {
+			super(new LongArrayStorage(bitSetSize, words), Math.max(1,
+					elementsInBloomFilter), hashFuncs, hashStrategy, funnel);
+			this.setElementsCount(elementsInBloomFilter);
+		}
+	}
+
+	// takes the words over, they must be a fresh array no one else holds
+	FilterSnapshot(long[] words, int bitSetSize, int hashFuncs,
+			long elementsInBloomFilter, HashStrategy hashStrategy,
+			Funnel<? super E> funnel, boolean owned) throws Exception {
+		this.filter = new Frozen<E>(words, bitSetSize, hashFuncs,
+				elementsInBloomFilter, hashStrategy, funnel);
+	}
+
+	// words are copied, the caller may keep changing its array
+	public FilterSnapshot(long[] words, int bitSetSize, int hashFuncs,
+			long elementsInBloomFilter, HashStrategy hashStrategy,
+			Funnel<? super E> funnel) throws Exception {
+		this(copy(words, bitSetSize), bitSetSize, hashFuncs,
+				elementsInBloomFilter, hashStrategy, funnel, true);
+	}
+
+	private static long[] copy(long[] words, int bitSetSize) throws Exception {
+		int wordCount = (int) ((bitSetSize + 63L) >>> 6);
+		if (words.length > wordCount) {
+			throw new Exception("Too many words for the bit set size");
+		}
+		return Arrays.copyOf(words, wordCount);
+	}
+
+	/*
+	 * Snapshot of a core filter. Its toLongArray() already is a fresh array of
+	 * all the words, so the snapshot keeps that array instead of copying it
+	 * once more.
+	 */
+	public static <E> FilterSnapshot<E> of(AbstractBloomFilter<E> source,
+			Funnel<? super E> funnel) throws Exception {
+		if (source.getBitSetSize() > Integer.MAX_VALUE) {
+			throw new Exception("Bit set size too large");
+		}
+		return new FilterSnapshot<E>(source.toLongArray(),
+				(int) source.getBitSetSize(), source.getHashFunctionsCount(),
+				source.elementsCount(), source.getHashStrategy(), funnel, true);
+	}
+
+	public boolean contains(E element) {
+		return this.filter.contains(element);
+	}
+
+	public boolean containsLong(long value) {
+		return this.filter.containsLong(value);
+	}
+
+	public boolean containsInt(int value) {
+		return this.filter.containsInt(value);
+	}
+
+	public boolean contains(byte[] data, int offset, int length) {
+		return this.filter.contains(data, offset, length);
+	}
+
+	public boolean containsBytes(ByteBuffer buffer) {
+		return this.filter.containsBytes(buffer);
+	}
+
+	public double getFalsePositiveProbability() {
+		return this.filter.getFalsePositiveProbability();
+	}
+
+	public long elementsCount() {
+		return this.filter.elementsCount();
+	}
+
+	public int getBitSetSize() {
+		return (int) this.filter.getBitSetSize();
+	}
+
+	public int getHashFunctionsCount() {
+		return this.filter.getHashFunctionsCount();
+	}
+
+	public HashStrategy getHashStrategy() {
+		return this.filter.getHashStrategy();
+	}
+
+	public long[] toLongArray() {
+		return this.filter.toLongArray();
+	}
+}
@@ -0,0 +1,69 @@
+package src.uni.fmi.dsaproject.bloomfilter.snapshot;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+
+/*
+ * Copy-on-write publication of a bloom filter. Writers work on a private
+ * builder and call publish() when a consistent state is reached; readers go
+ * through the last published FilterSnapshot and never see a half-written or
+ * half-cleared filter, nor wait for the writer.
+ *
+ *   filter.builder().clear();
+ *   filter.builder().addAll(freshElements);
+ *   filter.publish();
+ *
+ * The builder is a plain bitset BloomFilter, so it must be written by one
+ * thread at a time. Old snapshots are reclaimed by the collector once the
+ * readers still holding them let go.
+ */
+public class PublishedBloomFilter<E> {
+	private final AtomicReference<FilterSnapshot<E>> published;
+	private BloomFilter<E> builder;
+
+	// publishes the builder's current state straight away
+	public PublishedBloomFilter(BloomFilter<E> builder) throws Exception {
+		this.builder = builder;
+		this.published = new AtomicReference<>(builder.snapshot());
+	}
+
+	public synchronized BloomFilter<E> builder() {
+		return this.builder;
+	}
+
+	// copies the builder's bits, O(words), and makes them visible to readers
+	public synchronized FilterSnapshot<E> publish() throws Exception {
+		FilterSnapshot<E> snapshot = this.builder.snapshot();
+		this.published.set(snapshot);
+		return snapshot;
+	}
+
+	// swaps in a filter built elsewhere, which becomes the new builder
+	public synchronized FilterSnapshot<E> publish(BloomFilter<E> rebuilt)
+			throws Exception {
+		this.builder = rebuilt;
+		return this.publish();
+	}
+
+	// hold on to it for several lookups against the same state
+	public FilterSnapshot<E> snapshot() {
+		return this.published.get();
+	}
+
+	public boolean contains(E element) {
+		return this.published.get().contains(element);
+	}
+
+	public boolean containsLong(long value) {
+		return this.published.get().containsLong(value);
+	}
+
+	public boolean containsInt(int value) {
+		return this.published.get().containsInt(value);
+	}
+
+	public boolean contains(byte[] data, int offset, int length) {
+		return this.published.get().contains(data, offset, length);
+	}
+}
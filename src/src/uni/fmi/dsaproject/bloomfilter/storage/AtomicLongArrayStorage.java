@@ -0,0 +1,93 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// CAS on set, volatile reads on get, the storage of ConcurrentBloomFilter
+public class AtomicLongArrayStorage implements BitStorage {
+	private final AtomicLongArray words;
+	private final long bitSize;
+
+	public AtomicLongArrayStorage(long bitSize) throws Exception {
+		if ((bitSize + 63) >>> 6 > Integer.MAX_VALUE - 8) {
+			throw new Exception("Bit set size too large");
+		}
+		this.bitSize = bitSize;
+		this.words = new AtomicLongArray((int) ((bitSize + 63) >>> 6));
+	}
+
+	@Override
+	public long bitSize() {
+		return this.bitSize;
+	}
+
+	@Override
+	public boolean get(long index) {
+		return (this.words.get((int) (index >>> 6)) & (1L << index)) != 0;
+	}
+
+	@Override
+	public void set(long index) {
+		int wordIndex = (int) (index >>> 6);
+		long mask = 1L << index;
+		long word = this.words.get(wordIndex);
+		while ((word & mask) == 0) {
+			if (this.words.compareAndSet(wordIndex, word, word | mask)) {
+				return;
+			}
+			word = this.words.get(wordIndex);
+		}
+	}
+
+	// not atomic with respect to concurrent sets
+	@Override
+	public void clear() {
+		for (int i = 0; i < this.words.length(); i++) {
+			this.words.set(i, 0L);
+		}
+	}
+
+	@Override
+	public int wordCount() {
+		return this.words.length();
+	}
+
+	@Override
+	public long getWord(int wordIndex) {
+		return this.words.get(wordIndex);
+	}
+
+	@Override
+	public void setWord(int wordIndex, long word) {
+		this.words.set(wordIndex, word);
+	}
+
+	@Override
+	public void orWord(int wordIndex, long word) {
+		if (word != 0) {
+			this.words.accumulateAndGet(wordIndex, word, (a, b) -> a | b);
+		}
+	}
+
+	// safe against concurrent sets, unlike setWord
+	@Override
+	public void or(BitStorage other) {
+		for (int i = 0; i < this.words.length(); i++) {
+			long word = other.getWord(i);
+			if (word != 0) {
+				this.words.accumulateAndGet(i, word, (a, b) -> a | b);
+			}
+		}
+	}
+
+	@Override
+	public void and(BitStorage other) {
+		for (int i = 0; i < this.words.length(); i++) {
+			this.words.accumulateAndGet(i, other.getWord(i), (a, b) -> a & b);
+		}
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+}
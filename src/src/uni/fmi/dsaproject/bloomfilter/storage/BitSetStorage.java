@@ -0,0 +1,124 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class BitSetStorage implements BitStorage {
+	private final BitSet bits;
+	private final int bitSize;
+
+	public BitSetStorage(long bitSize) throws Exception {
+		if (bitSize > Integer.MAX_VALUE) {
+			throw new Exception("Bit set size too large");
+		}
+		this.bitSize = (int) bitSize;
+		this.bits = new BitSet(this.bitSize);
+	}
+
+	// restores the bits from words laid out as by toLongArray()
+	public BitSetStorage(long bitSize, long[] words) throws Exception {
+		if (bitSize > Integer.MAX_VALUE) {
+			throw new Exception("Bit set size too large");
+		}
+		if (words.length > (bitSize + 63) >>> 6) {
+			throw new Exception("Too many words for the bit set size");
+		}
+		this.bitSize = (int) bitSize;
+		this.bits = BitSet.valueOf(words);
+	}
+
+	@Override
+	public long bitSize() {
+		return this.bitSize;
+	}
+
+	@Override
+	public boolean get(long index) {
+		return this.bits.get((int) index);
+	}
+
+	@Override
+	public void set(long index) {
+		this.bits.set((int) index);
+	}
+
+	@Override
+	public void clear() {
+		this.bits.clear();
+	}
+
+	@Override
+	public int wordCount() {
+		return (int) ((this.bitSize + 63L) >>> 6);
+	}
+
+	// BitSet does not expose its words, so this walks the set bits
+	@Override
+	public long getWord(int wordIndex) {
+		long word = 0;
+		int from = wordIndex << 6;
+		int to = (int) Math.min(from + 64L, this.bitSize);
+		for (int i = this.bits.nextSetBit(from); i >= 0 && i < to; i = this.bits
+				.nextSetBit(i + 1)) {
+			word |= 1L << i;
+		}
+		return word;
+	}
+
+	// one walk over the set bits of the whole range
+	@Override
+	public void getWords(int from, long[] target, int offset, int count) {
+		Arrays.fill(target, offset, offset + count, 0L);
+		int start = from << 6;
+		int end = (int) Math.min((long) (from + count) << 6, this.bitSize);
+		for (int i = this.bits.nextSetBit(start); i >= 0 && i < end; i = this.bits
+				.nextSetBit(i + 1)) {
+			target[offset + ((i - start) >>> 6)] |= 1L << i;
+		}
+	}
+
+	@Override
+	public void setWord(int wordIndex, long word) {
+		int from = wordIndex << 6;
+		this.bits.clear(from, (int) Math.min(from + 64L, this.bitSize));
+		for (; word != 0; word &= word - 1) {
+			this.bits.set(from + Long.numberOfTrailingZeros(word));
+		}
+	}
+
+	@Override
+	public long cardinality() {
+		return this.bits.cardinality();
+	}
+
+	@Override
+	public void or(BitStorage other) {
+		if (other instanceof BitSetStorage) {
+			this.bits.or(((BitSetStorage) other).bits);
+		} else {
+			BitStorage.super.or(other);
+		}
+	}
+
+	@Override
+	public void and(BitStorage other) {
+		if (other instanceof BitSetStorage) {
+			this.bits.and(((BitSetStorage) other).bits);
+		} else {
+			BitStorage.super.and(other);
+		}
+	}
+
+	// BitSet trims trailing zero words, only then is a second copy needed
+	@Override
+	public long[] toLongArray() {
+		long[] used = this.bits.toLongArray();
+		return used.length == this.wordCount() ? used : Arrays.copyOf(used,
+				this.wordCount());
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return false;
+	}
+}
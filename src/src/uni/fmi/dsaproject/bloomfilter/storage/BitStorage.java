@@ -0,0 +1,77 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+/*
+ * Fixed size array of bits backing a bloom filter. Bits are grouped in 64-bit
+ * words, bit i being bit (i % 64) of word i / 64, the same layout as
+ * BitSet.toLongArray() and the serialized format, so any two storages of the
+ * same size can be compared and copied word by word.
+ */
+public interface BitStorage {
+
+	long bitSize();
+
+	boolean get(long index);
+
+	void set(long index);
+
+	void clear();
+
+	int wordCount();
+
+	long getWord(int wordIndex);
+
+	// replaces a whole word; not atomic with respect to concurrent sets
+	void setWord(int wordIndex, long word);
+
+	// copies count words starting at word from into target[offset ..]
+	default void getWords(int from, long[] target, int offset, int count) {
+		for (int i = 0; i < count; i++) {
+			target[offset + i] = this.getWord(from + i);
+		}
+	}
+
+	// replaces count words starting at word from with source[offset ..]
+	default void setWords(int from, long[] source, int offset, int count) {
+		for (int i = 0; i < count; i++) {
+			this.setWord(from + i, source[offset + i]);
+		}
+	}
+
+	// this word |= word, as safe against concurrent sets as set itself
+	default void orWord(int wordIndex, long word) {
+		this.setWord(wordIndex, this.getWord(wordIndex) | word);
+	}
+
+	// whether set may be called from several threads at once
+	boolean isThreadSafe();
+
+	default long cardinality() {
+		long count = 0;
+		for (int i = 0; i < this.wordCount(); i++) {
+			count += Long.bitCount(this.getWord(i));
+		}
+		return count;
+	}
+
+	// this |= other, word by word; both must have the same bit size
+	default void or(BitStorage other) {
+		for (int i = 0; i < this.wordCount(); i++) {
+			this.setWord(i, this.getWord(i) | other.getWord(i));
+		}
+	}
+
+	// this &= other, word by word; both must have the same bit size
+	default void and(BitStorage other) {
+		for (int i = 0; i < this.wordCount(); i++) {
+			this.setWord(i, this.getWord(i) & other.getWord(i));
+		}
+	}
+
+	default long[] toLongArray() {
+		long[] words = new long[this.wordCount()];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = this.getWord(i);
+		}
+		return words;
+	}
+}
@@ -0,0 +1,67 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+import java.util.Arrays;
+
+// one byte per bit: no shifting on access, eight times the memory
+public class BooleanArrayStorage implements BitStorage {
+	private final boolean[] bits;
+
+	public BooleanArrayStorage(long bitSize) throws Exception {
+		if (bitSize > Integer.MAX_VALUE) {
+			throw new Exception("Bit set size too large");
+		}
+		this.bits = new boolean[(int) bitSize];
+	}
+
+	@Override
+	public long bitSize() {
+		return this.bits.length;
+	}
+
+	@Override
+	public boolean get(long index) {
+		return this.bits[(int) index];
+	}
+
+	@Override
+	public void set(long index) {
+		this.bits[(int) index] = true;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.bits, false);
+	}
+
+	@Override
+	public int wordCount() {
+		return (this.bits.length + 63) >>> 6;
+	}
+
+	@Override
+	public long getWord(int wordIndex) {
+		long word = 0;
+		int from = wordIndex << 6;
+		int to = Math.min(from + 64, this.bits.length);
+		for (int i = from; i < to; i++) {
+			if (this.bits[i]) {
+				word |= 1L << i;
+			}
+		}
+		return word;
+	}
+
+	@Override
+	public void setWord(int wordIndex, long word) {
+		int from = wordIndex << 6;
+		int to = Math.min(from + 64, this.bits.length);
+		for (int i = from; i < to; i++) {
+			this.bits[i] = (word & (1L << i)) != 0;
+		}
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return false;
+	}
+}
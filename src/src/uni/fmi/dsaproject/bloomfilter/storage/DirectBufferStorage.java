@@ -0,0 +1,68 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/*
+ * Off-heap words in a direct ByteBuffer in native byte order. The bits do not
+ * count against the heap or get copied by the collector; the memory is freed
+ * when the storage becomes unreachable. One buffer holds up to 2^31 bytes.
+ */
+public class DirectBufferStorage implements BitStorage {
+	private final ByteBuffer buffer;
+	private final long bitSize;
+	private final int wordCount;
+
+	public DirectBufferStorage(long bitSize) throws Exception {
+		if ((bitSize + 63) >>> 6 > Integer.MAX_VALUE >>> 3) {
+			throw new Exception("Bit set size too large");
+		}
+		this.bitSize = bitSize;
+		this.wordCount = (int) ((bitSize + 63) >>> 6);
+		this.buffer = ByteBuffer.allocateDirect(this.wordCount << 3).order(
+				ByteOrder.nativeOrder());
+	}
+
+	@Override
+	public long bitSize() {
+		return this.bitSize;
+	}
+
+	@Override
+	public boolean get(long index) {
+		return (this.buffer.getLong((int) (index >>> 6) << 3) & (1L << index)) != 0;
+	}
+
+	@Override
+	public void set(long index) {
+		int offset = (int) (index >>> 6) << 3;
+		this.buffer.putLong(offset, this.buffer.getLong(offset) | (1L << index));
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < this.wordCount; i++) {
+			this.buffer.putLong(i << 3, 0L);
+		}
+	}
+
+	@Override
+	public int wordCount() {
+		return this.wordCount;
+	}
+
+	@Override
+	public long getWord(int wordIndex) {
+		return this.buffer.getLong(wordIndex << 3);
+	}
+
+	@Override
+	public void setWord(int wordIndex, long word) {
+		this.buffer.putLong(wordIndex << 3, word);
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return false;
+	}
+}
@@ -0,0 +1,247 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Wraps a storage and remembers, per page of words (4 KB by default), the
+ * epoch in which the page last changed. delta(since) copies out only the
+ * pages changed after the given epoch and starts a new one, so a checkpoint
+ * or a replica costs the changed pages instead of the whole filter:
+ *
+ *   StorageDelta delta = tracked.delta(lastEpoch);
+ *   delta.applyTo(replica);
+ *   lastEpoch = delta.getEpoch();
+ *
+ * Deltas are applied with OR, so clearing bits (clear, and, a setWord that
+ * drops bits) cannot be expressed as one; after such a call the next delta
+ * of every reader is a reset carrying all pages. delta(INITIAL_EPOCH) is
+ * always a full image. A page may show up in two consecutive deltas, which
+ * is harmless under OR.
+ */
+public class DirtyTrackingStorage implements BitStorage {
+	public static final int DEFAULT_PAGE_WORDS = 512;
+	public static final long INITIAL_EPOCH = 0;
+
+	private final BitStorage storage;
+	private final int pageShift;
+	private final AtomicLongArray pageEpochs;
+	private final AtomicLong epoch;
+	// last epoch in which bits were cleared
+	private final AtomicLong resetEpoch;
+
+	public DirtyTrackingStorage(BitStorage storage, int pageWords)
+			throws Exception {
+		if (pageWords <= 0 || Integer.bitCount(pageWords) != 1) {
+			throw new Exception("Page size must be a power of two");
+		}
+		this.storage = storage;
+		this.pageShift = Integer.numberOfTrailingZeros(pageWords);
+		this.pageEpochs = new AtomicLongArray((int) (((long) storage
+				.wordCount() + pageWords - 1) >>> this.pageShift));
+		this.epoch = new AtomicLong(INITIAL_EPOCH + 1);
+		// the wrapped storage may already hold bits
+		this.resetEpoch = new AtomicLong(INITIAL_EPOCH + 1);
+	}
+
+	public DirtyTrackingStorage(BitStorage storage) throws Exception {
+		this(storage, DEFAULT_PAGE_WORDS);
+	}
+
+	/*
+	 * Records the current epoch on the page after its bits were changed. If
+	 * delta() starts a new epoch meanwhile the page is marked again with the
+	 * new one, so a change missed by a delta's copy is always picked up by
+	 * the next delta.
+	 */
+	private void markPage(int page) {
+		long epoch = this.epoch.get();
+		while (true) {
+			if (this.pageEpochs.get(page) < epoch) {
+				this.pageEpochs.set(page, epoch);
+			}
+			long current = this.epoch.get();
+			if (current == epoch) {
+				return;
+			}
+			epoch = current;
+		}
+	}
+
+	private void markReset() {
+		long epoch = this.epoch.get();
+		while (true) {
+			this.resetEpoch.accumulateAndGet(epoch, Math::max);
+			long current = this.epoch.get();
+			if (current == epoch) {
+				return;
+			}
+			epoch = current;
+		}
+	}
+
+	@Override
+	public long bitSize() {
+		return this.storage.bitSize();
+	}
+
+	@Override
+	public boolean get(long index) {
+		return this.storage.get(index);
+	}
+
+	// bits already set do not dirty their page
+	@Override
+	public void set(long index) {
+		if (!this.storage.get(index)) {
+			this.storage.set(index);
+			this.markPage((int) (index >>> 6 >>> this.pageShift));
+		}
+	}
+
+	@Override
+	public void clear() {
+		this.storage.clear();
+		this.markReset();
+	}
+
+	@Override
+	public int wordCount() {
+		return this.storage.wordCount();
+	}
+
+	@Override
+	public long getWord(int wordIndex) {
+		return this.storage.getWord(wordIndex);
+	}
+
+	@Override
+	public void getWords(int from, long[] target, int offset, int count) {
+		this.storage.getWords(from, target, offset, count);
+	}
+
+	@Override
+	public void setWord(int wordIndex, long word) {
+		long old = this.storage.getWord(wordIndex);
+		if (old == word) {
+			return;
+		}
+		this.storage.setWord(wordIndex, word);
+		if ((old & ~word) != 0) {
+			this.markReset();
+		} else {
+			this.markPage(wordIndex >>> this.pageShift);
+		}
+	}
+
+	@Override
+	public void orWord(int wordIndex, long word) {
+		if ((this.storage.getWord(wordIndex) | word) != this.storage
+				.getWord(wordIndex)) {
+			this.storage.orWord(wordIndex, word);
+			this.markPage(wordIndex >>> this.pageShift);
+		}
+	}
+
+	@Override
+	public void or(BitStorage other) {
+		for (int i = 0; i < this.storage.wordCount(); i++) {
+			this.orWord(i, other.getWord(i));
+		}
+	}
+
+	@Override
+	public void and(BitStorage other) {
+		this.storage.and(other);
+		this.markReset();
+	}
+
+	@Override
+	public long cardinality() {
+		return this.storage.cardinality();
+	}
+
+	@Override
+	public long[] toLongArray() {
+		return this.storage.toLongArray();
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return this.storage.isThreadSafe();
+	}
+
+	// the epoch changes are currently recorded under
+	public long getEpoch() {
+		return this.epoch.get();
+	}
+
+	public int getPageWords() {
+		return 1 << this.pageShift;
+	}
+
+	public int pageCount() {
+		return this.pageEpochs.length();
+	}
+
+	// number of pages changed after the given epoch
+	public int dirtyPages(long sinceEpoch) {
+		if (sinceEpoch < this.resetEpoch.get()) {
+			return this.pageCount();
+		}
+		int count = 0;
+		for (int i = 0; i < this.pageEpochs.length(); i++) {
+			if (this.pageEpochs.get(i) > sinceEpoch) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Copies the pages changed after sinceEpoch and starts a new epoch; pass
+	 * the returned delta's getEpoch() as sinceEpoch next time. Several
+	 * readers can follow the same storage, each with its own epoch. Safe to
+	 * call while other threads set bits: their changes land in this delta or
+	 * in the next one.
+	 */
+	public StorageDelta delta(long sinceEpoch) throws Exception {
+		if (sinceEpoch < INITIAL_EPOCH || sinceEpoch >= this.epoch.get()) {
+			throw new Exception("Invalid epoch: " + sinceEpoch);
+		}
+		long epoch = this.epoch.getAndIncrement();
+		boolean reset = sinceEpoch < this.resetEpoch.get();
+		int pageWords = this.getPageWords();
+		int[] pages = new int[this.pageCount()];
+		int count = 0;
+		for (int i = 0; i < pages.length; i++) {
+			if (reset || this.pageEpochs.get(i) > sinceEpoch) {
+				pages[count++] = i;
+			}
+		}
+		pages = Arrays.copyOf(pages, count);
+		int wordCount = this.storage.wordCount();
+		int lastPage = this.pageCount() - 1;
+		int size = 0;
+		for (int page : pages) {
+			size += page == lastPage ? wordCount - (page << this.pageShift)
+					: pageWords;
+		}
+		long[] words = new long[size];
+		int next = 0;
+		for (int page : pages) {
+			int end = (int) Math.min(wordCount,
+					(long) (page + 1) << this.pageShift);
+			for (int i = page << this.pageShift; i < end; i++) {
+				words[next++] = this.storage.getWord(i);
+			}
+		}
+		return new StorageDelta(this.storage.bitSize(), pageWords, sinceEpoch,
+				epoch, reset, pages, words);
+	}
+
+	public BitStorage getStorage() {
+		return this.storage;
+	}
+}
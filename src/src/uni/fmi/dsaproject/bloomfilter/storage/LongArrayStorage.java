@@ -0,0 +1,104 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+import java.util.Arrays;
+
+// plain words with no bounds growth or bookkeeping, the compact default
+public class LongArrayStorage implements BitStorage {
+	private final long[] words;
+	private final long bitSize;
+
+	public LongArrayStorage(long bitSize) throws Exception {
+		if ((bitSize + 63) >>> 6 > Integer.MAX_VALUE - 8) {
+			throw new Exception("Bit set size too large");
+		}
+		this.bitSize = bitSize;
+		this.words = new long[(int) ((bitSize + 63) >>> 6)];
+	}
+
+	// works on the given words, which are not copied
+	public LongArrayStorage(long bitSize, long[] words) throws Exception {
+		if (words.length != (bitSize + 63) >>> 6) {
+			throw new Exception("Word count does not match the bit set size");
+		}
+		this.bitSize = bitSize;
+		this.words = words;
+	}
+
+	@Override
+	public long bitSize() {
+		return this.bitSize;
+	}
+
+	@Override
+	public boolean get(long index) {
+		return (this.words[(int) (index >>> 6)] & (1L << index)) != 0;
+	}
+
+	@Override
+	public void set(long index) {
+		this.words[(int) (index >>> 6)] |= 1L << index;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.words, 0L);
+	}
+
+	@Override
+	public int wordCount() {
+		return this.words.length;
+	}
+
+	@Override
+	public long getWord(int wordIndex) {
+		return this.words[wordIndex];
+	}
+
+	@Override
+	public void setWord(int wordIndex, long word) {
+		this.words[wordIndex] = word;
+	}
+
+	@Override
+	public void getWords(int from, long[] target, int offset, int count) {
+		System.arraycopy(this.words, from, target, offset, count);
+	}
+
+	@Override
+	public void setWords(int from, long[] source, int offset, int count) {
+		System.arraycopy(source, offset, this.words, from, count);
+	}
+
+	@Override
+	public long cardinality() {
+		return WordOps.popcount(this.words);
+	}
+
+	@Override
+	public void or(BitStorage other) {
+		if (other instanceof LongArrayStorage) {
+			WordOps.or(this.words, ((LongArrayStorage) other).words);
+		} else {
+			BitStorage.super.or(other);
+		}
+	}
+
+	@Override
+	public void and(BitStorage other) {
+		if (other instanceof LongArrayStorage) {
+			WordOps.and(this.words, ((LongArrayStorage) other).words);
+		} else {
+			BitStorage.super.and(other);
+		}
+	}
+
+	@Override
+	public long[] toLongArray() {
+		return this.words.clone();
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return false;
+	}
+}
@@ -0,0 +1,220 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterFormat;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterHeader;
+
+/*
+ * Words in a memory-mapped file, little-endian as in the serialized format.
+ * The file either holds nothing but the words, or starts with the
+ * FilterFormat header followed by the words, which is how MappedBloomFilter
+ * keeps its files. Sets reach the file when the OS writes the pages back or
+ * on force().
+ */
+public class MappedFileStorage implements BitStorage, Closeable {
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int offset;
+	private final long bitSize;
+	private final int wordCount;
+	private final boolean readOnly;
+
+	private MappedFileStorage(FileChannel channel, int offset, long bitSize,
+			boolean readOnly) throws IOException {
+		this.channel = channel;
+		this.offset = offset;
+		this.bitSize = bitSize;
+		this.wordCount = (int) ((bitSize + 63) >>> 6);
+		this.readOnly = readOnly;
+		this.buffer = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY
+				: FileChannel.MapMode.READ_WRITE, 0, offset
+				+ ((long) this.wordCount << 3));
+		this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static void checkSize(int offset, long bitSize) throws Exception {
+		if ((bitSize + 63) >>> 6 > (Integer.MAX_VALUE - offset) >>> 3) {
+			throw new Exception("Bit set size too large");
+		}
+	}
+
+	private static FileChannel open(Path path, boolean create,
+			boolean readOnly) throws IOException {
+		if (create) {
+			return FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		return readOnly ? FileChannel.open(path, StandardOpenOption.READ)
+				: FileChannel.open(path, StandardOpenOption.READ,
+						StandardOpenOption.WRITE);
+	}
+
+	public static MappedFileStorage create(Path path, long bitSize)
+			throws Exception {
+		checkSize(0, bitSize);
+		FileChannel channel = open(path, true, false);
+		try {
+			return new MappedFileStorage(channel, 0, bitSize, false);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	// the bit size is not stored in the file, it has to match the creator's
+	public static MappedFileStorage open(Path path, long bitSize,
+			boolean readOnly) throws Exception {
+		FileChannel channel = open(path, false, readOnly);
+		try {
+			if (channel.size() != ((bitSize + 63) >>> 6) << 3) {
+				throw new Exception("File size does not match the bit set size");
+			}
+			return new MappedFileStorage(channel, 0, bitSize, readOnly);
+		} catch (Exception e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	// a new file with the header in front of the words, all of them zero
+	public static MappedFileStorage create(Path path, FilterHeader header)
+			throws Exception {
+		checkSize(FilterFormat.HEADER_SIZE, header.getBitSetSize());
+		FileChannel channel = open(path, true, false);
+		try {
+			MappedFileStorage storage = new MappedFileStorage(channel,
+					FilterFormat.HEADER_SIZE, header.getBitSetSize(), false);
+			storage.writeHeader(header);
+			return storage;
+		} catch (Exception e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/*
+	 * Maps a file that starts with a header, its bit set size included. Files
+	 * written with FilterFormat open as well, their checksum trailer is left
+	 * out of the mapping.
+	 */
+	public static MappedFileStorage open(Path path, boolean readOnly)
+			throws Exception {
+		FileChannel channel = open(path, false, readOnly);
+		try {
+			if (channel.size() < FilterFormat.HEADER_SIZE) {
+				throw new Exception("Not a bloom filter file");
+			}
+			FilterHeader header = FilterFormat.readHeader(channel);
+			checkSize(FilterFormat.HEADER_SIZE, header.getBitSetSize());
+			if (channel.size() < FilterFormat.HEADER_SIZE
+					+ header.getWordCount() * 8) {
+				throw new Exception("Corrupted bloom filter file");
+			}
+			return new MappedFileStorage(channel, FilterFormat.HEADER_SIZE,
+					header.getBitSetSize(), readOnly);
+		} catch (Exception e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	// the header in front of the words, for files that have one
+	public FilterHeader readHeader() throws Exception {
+		this.checkHeader();
+		this.buffer.position(0);
+		return FilterFormat.readHeader(this.buffer);
+	}
+
+	public void writeHeader(FilterHeader header) throws Exception {
+		this.checkHeader();
+		this.checkWritable();
+		this.buffer.position(0);
+		FilterFormat.writeHeader(this.buffer, header);
+	}
+
+	private void checkHeader() throws Exception {
+		if (this.offset == 0) {
+			throw new Exception("The file has no header");
+		}
+	}
+
+	private void checkWritable() {
+		if (this.readOnly) {
+			throw new IllegalStateException("Bloom filter is read-only");
+		}
+	}
+
+	private int position(long wordIndex) {
+		return this.offset + ((int) wordIndex << 3);
+	}
+
+	@Override
+	public long bitSize() {
+		return this.bitSize;
+	}
+
+	@Override
+	public boolean get(long index) {
+		return (this.buffer.getLong(this.position(index >>> 6)) & (1L << index)) != 0;
+	}
+
+	@Override
+	public void set(long index) {
+		this.checkWritable();
+		int position = this.position(index >>> 6);
+		this.buffer.putLong(position, this.buffer.getLong(position)
+				| (1L << index));
+	}
+
+	@Override
+	public void clear() {
+		this.checkWritable();
+		for (int i = 0; i < this.wordCount; i++) {
+			this.buffer.putLong(this.position(i), 0L);
+		}
+	}
+
+	@Override
+	public int wordCount() {
+		return this.wordCount;
+	}
+
+	@Override
+	public long getWord(int wordIndex) {
+		return this.buffer.getLong(this.position(wordIndex));
+	}
+
+	@Override
+	public void setWord(int wordIndex, long word) {
+		this.checkWritable();
+		this.buffer.putLong(this.position(wordIndex), word);
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return false;
+	}
+
+	public boolean isReadOnly() {
+		return this.readOnly;
+	}
+
+	public void force() {
+		if (!this.readOnly) {
+			this.buffer.force();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.force();
+		this.channel.close();
+	}
+}
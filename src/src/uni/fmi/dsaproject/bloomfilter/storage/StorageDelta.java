@@ -0,0 +1,245 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+/*
+ * The pages of a DirtyTrackingStorage that changed between two epochs, see
+ * DirtyTrackingStorage.delta. Binary format, all values little-endian:
+ *
+ *   header (48 bytes)
+ *     0  int  magic
+ *     4  int  version
+ *     8  long bitSize
+ *    16  long sinceEpoch
+ *    24  long epoch
+ *    32  int  pageWords
+ *    36  int  flags, 1 = reset
+ *    40  int  page count
+ *    44  int  word count
+ *   body
+ *     page indexes, ascending ints
+ *     the words of those pages in order, the last page of the storage may
+ *     be shorter than pageWords
+ *   trailer
+ *     long CRC32 of the header and the body
+ *
+ * Only the bits travel, the element count of a filter does not.
+ */
+public class StorageDelta {
+	public static final int MAGIC = 0x424C4D44; // "BLMD"
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 48;
+	private static final int RESET = 1;
+
+	private final long bitSize;
+	private final int pageWords;
+	private final long sinceEpoch;
+	private final long epoch;
+	private final boolean reset;
+	private final int[] pages;
+	private final long[] words;
+
+	StorageDelta(long bitSize, int pageWords, long sinceEpoch, long epoch,
+			boolean reset, int[] pages, long[] words) throws Exception {
+		this.bitSize = bitSize;
+		this.pageWords = pageWords;
+		this.sinceEpoch = sinceEpoch;
+		this.epoch = epoch;
+		this.reset = reset;
+		this.pages = pages;
+		this.words = words;
+		this.check();
+	}
+
+	private int storageWords() {
+		return (int) ((this.bitSize + 63) >>> 6);
+	}
+
+	private int pageLength(int page) {
+		return (int) Math.min(this.pageWords, this.storageWords()
+				- (long) page * this.pageWords);
+	}
+
+	private void check() throws Exception {
+		if (this.bitSize < 0 || this.pageWords <= 0
+				|| Integer.bitCount(this.pageWords) != 1
+				|| this.sinceEpoch < 0 || this.epoch < this.sinceEpoch) {
+			throw new Exception("Corrupted storage delta");
+		}
+		long total = 0;
+		int previous = -1;
+		for (int page : this.pages) {
+			if (page <= previous
+					|| (long) page * this.pageWords >= this.storageWords()) {
+				throw new Exception("Corrupted storage delta");
+			}
+			total += this.pageLength(page);
+			previous = page;
+		}
+		if (total != this.words.length) {
+			throw new Exception("Corrupted storage delta");
+		}
+	}
+
+	/*
+	 * ORs the pages into the target, or with a reset delta replaces its
+	 * words. Applying the same delta twice, or two overlapping ones, gives
+	 * the same bits as applying each once.
+	 */
+	public void applyTo(BitStorage target) throws Exception {
+		if (target.bitSize() != this.bitSize) {
+			throw new Exception("Incompatible storage");
+		}
+		int next = 0;
+		for (int page : this.pages) {
+			int start = page * this.pageWords;
+			int end = start + this.pageLength(page);
+			for (int i = start; i < end; i++) {
+				if (this.reset) {
+					target.setWord(i, this.words[next++]);
+				} else {
+					target.orWord(i, this.words[next++]);
+				}
+			}
+		}
+	}
+
+	public long getBitSize() {
+		return this.bitSize;
+	}
+
+	public int getPageWords() {
+		return this.pageWords;
+	}
+
+	public long getSinceEpoch() {
+		return this.sinceEpoch;
+	}
+
+	// the epoch to ask the next delta from
+	public long getEpoch() {
+		return this.epoch;
+	}
+
+	public boolean isReset() {
+		return this.reset;
+	}
+
+	public int pageCount() {
+		return this.pages.length;
+	}
+
+	public int[] getPages() {
+		return this.pages.clone();
+	}
+
+	public int sizeInBytes() {
+		return HEADER_SIZE + this.pages.length * 4 + this.words.length * 8 + 8;
+	}
+
+	public ByteBuffer toByteBuffer() {
+		ByteBuffer buffer = ByteBuffer.allocate(this.sizeInBytes()).order(
+				ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putLong(this.bitSize);
+		buffer.putLong(this.sinceEpoch);
+		buffer.putLong(this.epoch);
+		buffer.putInt(this.pageWords);
+		buffer.putInt(this.reset ? RESET : 0);
+		buffer.putInt(this.pages.length);
+		buffer.putInt(this.words.length);
+		for (int page : this.pages) {
+			buffer.putInt(page);
+		}
+		buffer.asLongBuffer().put(this.words);
+		buffer.position(buffer.position() + this.words.length * 8);
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.position());
+		buffer.putLong(crc.getValue());
+		buffer.flip();
+		return buffer;
+	}
+
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer buffer = this.toByteBuffer();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	// reads from the buffer's position and leaves it after the delta
+	public static StorageDelta readFrom(ByteBuffer buffer) throws Exception {
+		ByteBuffer in = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		if (in.remaining() < HEADER_SIZE || in.getInt(0) != MAGIC) {
+			throw new Exception("Not a storage delta");
+		}
+		if (in.getInt(4) != VERSION) {
+			throw new Exception("Unsupported storage delta version: "
+					+ in.getInt(4));
+		}
+		int pageCount = in.getInt(40);
+		int wordCount = in.getInt(44);
+		if (pageCount < 0 || wordCount < 0) {
+			throw new Exception("Corrupted storage delta");
+		}
+		long size = HEADER_SIZE + pageCount * 4L + wordCount * 8L + 8;
+		if (in.remaining() < size) {
+			throw new Exception("Truncated storage delta");
+		}
+		ByteBuffer checked = in.duplicate();
+		checked.limit((int) size - 8);
+		CRC32 crc = new CRC32();
+		crc.update(checked);
+		if (in.getLong((int) size - 8) != crc.getValue()) {
+			throw new Exception("Checksum mismatch");
+		}
+		int[] pages = new int[pageCount];
+		in.position(HEADER_SIZE);
+		in.asIntBuffer().get(pages);
+		in.position(HEADER_SIZE + pageCount * 4);
+		long[] words = new long[wordCount];
+		in.asLongBuffer().get(words);
+		StorageDelta delta = new StorageDelta(in.getLong(8), in.getInt(32),
+				in.getLong(16), in.getLong(24), (in.getInt(36) & RESET) != 0,
+				pages, words);
+		buffer.position(buffer.position() + (int) size);
+		return delta;
+	}
+
+	public static StorageDelta readFrom(ReadableByteChannel channel)
+			throws Exception {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(
+				ByteOrder.LITTLE_ENDIAN);
+		readFully(channel, header);
+		if (header.getInt(0) != MAGIC) {
+			throw new Exception("Not a storage delta");
+		}
+		int pageCount = header.getInt(40);
+		int wordCount = header.getInt(44);
+		long size = HEADER_SIZE + pageCount * 4L + wordCount * 8L + 8;
+		if (pageCount < 0 || wordCount < 0 || size > Integer.MAX_VALUE) {
+			throw new Exception("Corrupted storage delta");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) size);
+		header.flip();
+		buffer.put(header);
+		readFully(channel, buffer);
+		buffer.flip();
+		return readFrom(buffer);
+	}
+
+	private static void readFully(ReadableByteChannel channel,
+			ByteBuffer buffer) throws Exception {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer) < 0) {
+				throw new Exception("Truncated storage delta");
+			}
+		}
+	}
+}
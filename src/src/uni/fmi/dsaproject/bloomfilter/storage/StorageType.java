@@ -0,0 +1,41 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+/*
+ * The in-memory backends, so the choice can come from configuration, e.g.
+ * StorageType.valueOf(System.getProperty("bloomfilter.storage", "LONGS")).
+ * File backed storage needs a path and is created with MappedFileStorage.
+ */
+public enum StorageType {
+	BOOLEANS {
+		@Override
+		public BitStorage create(long bitSize) throws Exception {
+			return new BooleanArrayStorage(bitSize);
+		}
+	},
+	BIT_SET {
+		@Override
+		public BitStorage create(long bitSize) throws Exception {
+			return new BitSetStorage(bitSize);
+		}
+	},
+	LONGS {
+		@Override
+		public BitStorage create(long bitSize) throws Exception {
+			return new LongArrayStorage(bitSize);
+		}
+	},
+	ATOMIC_LONGS {
+		@Override
+		public BitStorage create(long bitSize) throws Exception {
+			return new AtomicLongArrayStorage(bitSize);
+		}
+	},
+	OFF_HEAP {
+		@Override
+		public BitStorage create(long bitSize) throws Exception {
+			return new DirectBufferStorage(bitSize);
+		}
+	};
+
+	public abstract BitStorage create(long bitSize) throws Exception;
+}
@@ -0,0 +1,57 @@
+package src.uni.fmi.dsaproject.bloomfilter.storage;
+
+/*
+ * Bulk operations over bit words. They are deliberately plain counted loops
+ * over int indexes with no calls or branches inside: that is the shape C2's
+ * SuperWord pass turns into 256 / 512-bit SIMD code (and vector popcount
+ * where the CPU has one). Hand unrolling by four words measured between 1.3
+ * and 10 times slower because it hides the loop from the vectorizer, see
+ * WordOpsBenchmark.
+ */
+public final class WordOps {
+
+	private WordOps() {
+	}
+
+	// target |= source over the shorter of the two
+	public static void or(long[] target, long[] source) {
+		int length = Math.min(target.length, source.length);
+		for (int i = 0; i < length; i++) {
+			target[i] |= source[i];
+		}
+	}
+
+	// target &= source, words past the end of source are cleared
+	public static void and(long[] target, long[] source) {
+		int length = Math.min(target.length, source.length);
+		for (int i = 0; i < length; i++) {
+			target[i] &= source[i];
+		}
+		for (int i = length; i < target.length; i++) {
+			target[i] = 0;
+		}
+	}
+
+	public static long popcount(long[] words) {
+		return popcount(words, 0, words.length);
+	}
+
+	public static long popcount(long[] words, int from, int to) {
+		long count = 0;
+		for (int i = from; i < to; i++) {
+			count += Long.bitCount(words[i]);
+		}
+		return count;
+	}
+
+	// popcount(a | b) without materializing the union
+	public static long unionPopcount(long[] a, long[] b) {
+		int length = Math.min(a.length, b.length);
+		long count = 0;
+		for (int i = 0; i < length; i++) {
+			count += Long.bitCount(a[i] | b[i]);
+		}
+		long[] longer = a.length > b.length ? a : b;
+		return count + popcount(longer, length, longer.length);
+	}
+}
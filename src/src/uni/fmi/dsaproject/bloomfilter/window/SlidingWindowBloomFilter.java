@@ -0,0 +1,305 @@
+package src.uni.fmi.dsaproject.bloomfilter.window;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import src.uni.fmi.dsaproject.bloomfilter.Filter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnel;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnels;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+import src.uni.fmi.dsaproject.bloomfilter.sizing.FilterSizing;
+import src.uni.fmi.dsaproject.bloomfilter.storage.AtomicLongArrayStorage;
+import src.uni.fmi.dsaproject.bloomfilter.storage.BitStorage;
+
+/*
+ * "Seen recently" filter made of G generations of the same shape kept in a
+ * ring. Adds go to the newest generation, contains asks every generation.
+ * When the newest one is full the oldest is rotated out; with a generation
+ * duration one generation is rotated out per duration elapsed, checked on add
+ * and on contains. An element is remembered for at least G - 1 and at most G
+ * generations and nothing is forgotten in bulk.
+ *
+ * The ring has one more slot than the window, a spare generation that is
+ * always clear. Rotation publishes the spare as the newest generation and
+ * only then clears the one that fell out of the window, which becomes the
+ * next spare, so the generation being written is never cleared. One thread
+ * rotates, the others fail tryLock and keep writing to the generation they
+ * saw, which may end up slightly over its count. Lookups may miss elements of
+ * the generation being cleared, which have expired anyway.
+ */
+public class SlidingWindowBloomFilter<E> implements Filter<E> {
+	private final BitStorage[] generations;
+	private final LongAdder[] counts;
+	private final int hashFuncs;
+	private final long elementsPerGeneration;
+	private final long generationNanos;
+	private final LongSupplier clock;
+	private final ReentrantLock rotation;
+	private final HashStrategy hashStrategy;
+	private final Funnel<? super E> funnel;
+	private volatile int current;
+	private volatile long generationStart;
+
+	/*
+	 * falsePositiveProbability is for the whole window: every generation gets
+	 * 1 - (1 - p)^(1 / G) so that the G lookups together stay within p. A
+	 * generationNanos of 0 rotates on count only.
+	 */
+	public SlidingWindowBloomFilter(int generations,
+			long elementsPerGeneration, double falsePositiveProbability,
+			long generationNanos, HashStrategy hashStrategy,
+			Funnel<? super E> funnel, LongSupplier clock) throws Exception {
+		if (generations < 2) {
+			throw new Exception("A window needs at least two generations");
+		}
+		if (generationNanos < 0) {
+			throw new Exception("Invalid generation duration");
+		}
+		FilterSizing sizing = FilterSizing.optimal(elementsPerGeneration,
+				1 - Math.pow(1 - falsePositiveProbability, 1.0 / generations));
+		// the window plus the spare
+		this.generations = new BitStorage[generations + 1];
+		this.counts = new LongAdder[generations + 1];
+		for (int i = 0; i <= generations; i++) {
+			this.generations[i] = new AtomicLongArrayStorage(
+					sizing.getBitSetSize());
+			this.counts[i] = new LongAdder();
+		}
+		this.hashFuncs = sizing.getHashFunctionsCount();
+		this.elementsPerGeneration = elementsPerGeneration;
+		this.generationNanos = generationNanos;
+		this.clock = clock;
+		this.rotation = new ReentrantLock();
+		this.hashStrategy = hashStrategy;
+		this.funnel = funnel;
+		this.current = 0;
+		this.generationStart = clock.getAsLong();
+	}
+
+	// rotates every elementsPerGeneration adds
+	public static <E> SlidingWindowBloomFilter<E> countWindow(int generations,
+			long elementsPerGeneration, double falsePositiveProbability)
+			throws Exception {
+		return new SlidingWindowBloomFilter<E>(generations,
+				elementsPerGeneration, falsePositiveProbability, 0,
+				HashStrategies.XXHASH64, Funnels.TO_STRING, System::nanoTime);
+	}
+
+	// rotates every duration, or earlier when a generation fills up
+	public static <E> SlidingWindowBloomFilter<E> timeWindow(int generations,
+			long elementsPerGeneration, double falsePositiveProbability,
+			long duration, TimeUnit unit) throws Exception {
+		if (duration <= 0) {
+			throw new Exception("Invalid generation duration");
+		}
+		return new SlidingWindowBloomFilter<E>(generations,
+				elementsPerGeneration, falsePositiveProbability,
+				unit.toNanos(duration), HashStrategies.XXHASH64,
+				Funnels.TO_STRING, System::nanoTime);
+	}
+
+	private boolean probe(BitStorage generation, long hash1, long hash2) {
+		long bitSize = generation.bitSize();
+		for (int i = 0; i < this.hashFuncs; i++) {
+			if (!generation.get(HashStrategies.index(hash1, hash2, i, bitSize))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void insert(long hash1) {
+		this.expire();
+		int generation = this.current;
+		if (this.counts[generation].sum() >= this.elementsPerGeneration) {
+			this.rotate(generation);
+			generation = this.current;
+		}
+		BitStorage storage = this.generations[generation];
+		long hash2 = HashStrategies.secondHash(hash1);
+		long bitSize = storage.bitSize();
+		for (int i = 0; i < this.hashFuncs; i++) {
+			storage.set(HashStrategies.index(hash1, hash2, i, bitSize));
+		}
+		this.counts[generation].increment();
+	}
+
+	// the g-th newest generation of the window, g < G
+	private int live(int newest, int g) {
+		return (newest - g + this.generations.length) % this.generations.length;
+	}
+
+	// newest generation first, it is the most likely to hold the element
+	private boolean contains(long hash1) {
+		this.expire();
+		long hash2 = HashStrategies.secondHash(hash1);
+		int newest = this.current;
+		for (int g = 0; g < this.getGenerationCount(); g++) {
+			if (this.probe(this.generations[this.live(newest, g)], hash1,
+					hash2)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Publishes the spare as the newest generation, then clears the oldest,
+	 * which is out of the window from that moment on and becomes the spare.
+	 * Called with the rotation lock held.
+	 */
+	private void advance() {
+		int spare = (this.current + 1) % this.generations.length;
+		this.current = spare;
+		int oldest = (spare + 1) % this.generations.length;
+		this.generations[oldest].clear();
+		this.counts[oldest].reset();
+	}
+
+	// a thread that loses the race keeps writing to the full generation
+	private void rotate(int expected) {
+		if (!this.rotation.tryLock()) {
+			return;
+		}
+		try {
+			if (this.current == expected) {
+				this.advance();
+				this.generationStart = this.clock.getAsLong();
+			}
+		} finally {
+			this.rotation.unlock();
+		}
+	}
+
+	/*
+	 * Rotates once for every whole generation duration gone by, up to G, so
+	 * after an idle gap everything that expired meanwhile is cleared before
+	 * the next add or lookup. The steps are recomputed under the lock, racing
+	 * threads go on with the window as it is until the rotation is done.
+	 */
+	private void expire() {
+		if (this.generationNanos == 0) {
+			return;
+		}
+		long now = this.clock.getAsLong();
+		if (now - this.generationStart < this.generationNanos
+				|| !this.rotation.tryLock()) {
+			return;
+		}
+		try {
+			long steps = (now - this.generationStart) / this.generationNanos;
+			long rotations = Math.min(steps, this.getGenerationCount());
+			for (long s = 0; s < rotations; s++) {
+				this.advance();
+			}
+			this.generationStart += steps * this.generationNanos;
+		} finally {
+			this.rotation.unlock();
+		}
+	}
+
+	// for callers that rotate from a scheduler instead of on add
+	public void rotate() {
+		this.rotation.lock();
+		try {
+			this.advance();
+			this.generationStart = this.clock.getAsLong();
+		} finally {
+			this.rotation.unlock();
+		}
+	}
+
+	@Override
+	public void add(E element) {
+		this.insert(this.funnel.hash(element, this.hashStrategy));
+	}
+
+	public void addLong(long value) {
+		this.insert(this.hashStrategy.hashLong(value));
+	}
+
+	@Override
+	public boolean contains(E element) {
+		return this.contains(this.funnel.hash(element, this.hashStrategy));
+	}
+
+	public boolean containsLong(long value) {
+		return this.contains(this.hashStrategy.hashLong(value));
+	}
+
+	// adds the element and tells whether it was (probably) seen already
+	public boolean checkAndAdd(E element) {
+		long hash1 = this.funnel.hash(element, this.hashStrategy);
+		if (this.contains(hash1)) {
+			return true;
+		}
+		this.insert(hash1);
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		this.rotation.lock();
+		try {
+			for (int i = 0; i < this.generations.length; i++) {
+				this.generations[i].clear();
+				this.counts[i].reset();
+			}
+			this.generationStart = this.clock.getAsLong();
+		} finally {
+			this.rotation.unlock();
+		}
+	}
+
+	@Override
+	public double expectedFalsePositiveProbability() {
+		double none = Math.pow(1 - FilterSizing.falsePositiveProbability(
+				this.generations[0].bitSize(), this.hashFuncs,
+				this.elementsPerGeneration), this.getGenerationCount());
+		return 1 - none;
+	}
+
+	// 1 - (1 - p0) * (1 - p1) * ... over the generations of the window
+	@Override
+	public double getFalsePositiveProbability() {
+		int newest = this.current;
+		double none = 1;
+		for (int g = 0; g < this.getGenerationCount(); g++) {
+			int generation = this.live(newest, g);
+			none *= 1 - FilterSizing.falsePositiveProbability(
+					this.generations[generation].bitSize(), this.hashFuncs,
+					this.counts[generation].sum());
+		}
+		return 1 - none;
+	}
+
+	// elements added over the whole window
+	public long elementsCount() {
+		int newest = this.current;
+		long count = 0;
+		for (int g = 0; g < this.getGenerationCount(); g++) {
+			count += this.counts[this.live(newest, g)].sum();
+		}
+		return count;
+	}
+
+	// the window, without the spare
+	public int getGenerationCount() {
+		return this.generations.length - 1;
+	}
+
+	public long getElementsPerGeneration() {
+		return this.elementsPerGeneration;
+	}
+
+	public int getHashFunctionsCount() {
+		return this.hashFuncs;
+	}
+
+	public HashStrategy getHashStrategy() {
+		return this.hashStrategy;
+	}
+}
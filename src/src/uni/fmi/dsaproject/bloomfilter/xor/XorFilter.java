@@ -0,0 +1,197 @@
+package src.uni.fmi.dsaproject.bloomfilter.xor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+
+/*
+ * Immutable xor filter (Graf and Lemire) with 8-bit fingerprints, built once
+ * from a known key set. Each key maps to one slot in each third of the table
+ * and contains() checks that the three slots xor to the key's fingerprint:
+ * exactly three memory probes, about 9.84 bits per key and a false positive
+ * probability of 1/256.
+ */
+public final class XorFilter<E> {
+	private static final int MAX_ATTEMPTS = 100;
+
+	private final byte[] fingerprints;
+	private final int blockLength;
+	private final long seed;
+	private final int elementsInFilter;
+	private final HashStrategy hashStrategy;
+
+	private XorFilter(byte[] fingerprints, long seed, int elementsInFilter,
+			HashStrategy hashStrategy) {
+		this.fingerprints = fingerprints;
+		this.blockLength = fingerprints.length / 3;
+		this.seed = seed;
+		this.elementsInFilter = elementsInFilter;
+		this.hashStrategy = hashStrategy;
+	}
+
+	public static <E> XorFilter<E> build(Collection<? extends E> elements,
+			HashStrategy hashStrategy) throws Exception {
+		long[] keys = new long[elements.size()];
+		int size = 0;
+		for (E element : elements) {
+			byte[] data = element.toString().getBytes(StandardCharsets.UTF_8);
+			keys[size++] = hashStrategy.hash(data, 0, data.length);
+		}
+		// equal keys can never be peeled, keep one of each
+		Arrays.sort(keys);
+		int distinct = 0;
+		for (int i = 0; i < size; i++) {
+			if (i == 0 || keys[i] != keys[i - 1]) {
+				keys[distinct++] = keys[i];
+			}
+		}
+		size = distinct;
+
+		int capacity = (32 + (int) Math.ceil(1.23 * size)) / 3 * 3;
+		int blockLength = capacity / 3;
+		int[] counts = new int[capacity];
+		long[] xors = new long[capacity];
+		int[] queue = new int[2 * capacity];
+		long[] stackHashes = new long[size];
+		int[] stackIndexes = new int[size];
+		long seed = 0x9E3779B97F4A7C15L;
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+			seed = HashStrategies.secondHash(seed);
+			Arrays.fill(counts, 0);
+			Arrays.fill(xors, 0L);
+			for (int i = 0; i < size; i++) {
+				long h = mix(keys[i], seed);
+				for (int j = 0; j < 3; j++) {
+					int index = index(h, j, blockLength);
+					counts[index]++;
+					xors[index] ^= h;
+				}
+			}
+			// peel slots that are hit by a single key until none are left
+			int queueSize = 0;
+			for (int i = 0; i < capacity; i++) {
+				if (counts[i] == 1) {
+					queue[queueSize++] = i;
+				}
+			}
+			int stackSize = 0;
+			while (queueSize > 0) {
+				int index = queue[--queueSize];
+				if (counts[index] != 1) {
+					continue;
+				}
+				long h = xors[index];
+				stackHashes[stackSize] = h;
+				stackIndexes[stackSize] = index;
+				stackSize++;
+				for (int j = 0; j < 3; j++) {
+					int other = index(h, j, blockLength);
+					counts[other]--;
+					xors[other] ^= h;
+					if (counts[other] == 1) {
+						queue[queueSize++] = other;
+					}
+				}
+			}
+			if (stackSize < size) {
+				continue;
+			}
+			// assign in reverse peeling order, the slot a key was peeled from
+			// is not used by any key assigned after it
+			byte[] fingerprints = new byte[capacity];
+			for (int i = stackSize - 1; i >= 0; i--) {
+				long h = stackHashes[i];
+				int f = fingerprint(h);
+				for (int j = 0; j < 3; j++) {
+					f ^= fingerprints[index(h, j, blockLength)];
+				}
+				fingerprints[stackIndexes[i]] = (byte) f;
+			}
+			return new XorFilter<>(fingerprints, seed, size, hashStrategy);
+		}
+		throw new Exception("Could not build xor filter");
+	}
+
+	public static <E> XorFilter<E> build(Collection<? extends E> elements)
+			throws Exception {
+		return build(elements, HashStrategies.XXHASH64);
+	}
+
+	private static long mix(long key, long seed) {
+		return HashStrategies.secondHash(key + seed);
+	}
+
+	private static int fingerprint(long h) {
+		return (int) (h ^ (h >>> 32)) & 0xFF;
+	}
+
+	// j-th slot, in the j-th third of the table
+	private static int index(long h, int j, int blockLength) {
+		int r = (int) Long.rotateLeft(h, 21 * j);
+		return (int) (((r & 0xFFFFFFFFL) * blockLength) >>> 32) + j
+				* blockLength;
+	}
+
+	public boolean contains(E element) {
+		if (this.elementsInFilter == 0) {
+			return false;
+		}
+		byte[] data = element.toString().getBytes(StandardCharsets.UTF_8);
+		long h = mix(this.hashStrategy.hash(data, 0, data.length), this.seed);
+		int f = this.fingerprints[index(h, 0, this.blockLength)]
+				^ this.fingerprints[index(h, 1, this.blockLength)]
+				^ this.fingerprints[index(h, 2, this.blockLength)];
+		return (f & 0xFF) == fingerprint(h);
+	}
+
+	public double getFalsePositiveProbability() {
+		return 1.0 / 256;
+	}
+
+	public double getBitPerElement() {
+		return this.elementsInFilter == 0 ? 0 : 8.0 * this.fingerprints.length
+				/ this.elementsInFilter;
+	}
+
+	public int elementsCount() {
+		return this.elementsInFilter;
+	}
+
+	public HashStrategy getHashStrategy() {
+		return this.hashStrategy;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		@SuppressWarnings("unchecked")
+		XorFilter<E> other = (XorFilter<E>) obj;
+		if (this.seed != other.seed) {
+			return false;
+		}
+		if (this.hashStrategy.getId() != other.hashStrategy.getId()) {
+			return false;
+		}
+		if (this.elementsInFilter != other.elementsInFilter) {
+			return false;
+		}
+		return Arrays.equals(this.fingerprints, other.fingerprints);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		hash = 31 * hash + Arrays.hashCode(this.fingerprints);
+		hash = 31 * hash + Long.hashCode(this.seed);
+		hash = 31 * hash + this.hashStrategy.getId();
+		return hash;
+	}
+}
@@ -0,0 +1,180 @@
+package test.uni.fmi.dsaproject.bloomfilter.async;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.Filter;
+import src.uni.fmi.dsaproject.bloomfilter.async.AsyncIngestor;
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.concurrent.ConcurrentBloomFilter;
+
+public class AsyncIngestorTest {
+
+	private boolean failed(CompletableFuture<?> future) throws Exception {
+		try {
+			future.get();
+			return false;
+		} catch (ExecutionException e) {
+			return true;
+		}
+	}
+
+	@Test
+	public void addAsync() throws Exception {
+		System.out.println("addAsync");
+		BloomFilter<String> bf = BloomFilter.create(1000, 0.01);
+		try (AsyncIngestor<String> ingestor = new AsyncIngestor<>(bf)) {
+			CompletableFuture<Boolean> added = ingestor.addAsync("evgeni");
+			// queued behind the add of the same element
+			assertEquals(ingestor.containsAsync("evgeni").get(), true);
+			assertEquals(added.isDone(), true);
+			ingestor.addAsync("sadpanda");
+			ingestor.flush().get();
+			assertEquals(bf.contains("sadpanda"), true);
+		}
+	}
+
+	@Test
+	public void producers() throws Exception {
+		System.out.println("many producers");
+		final int threads = 8;
+		final int perThread = 10000;
+		ConcurrentBloomFilter<String> bf = new ConcurrentBloomFilter<>(10,
+				threads * perThread, 7);
+		final AsyncIngestor<String> ingestor = new AsyncIngestor<>(bf, 2,
+				1024, 128, AsyncIngestor.daemonThreads());
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				final int from = t * perThread;
+				futures.add(pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						for (int i = from; i < from + perThread; i++) {
+							ingestor.addAsync(String.valueOf(i));
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+			ingestor.flush().get();
+		} finally {
+			pool.shutdown();
+			ingestor.close();
+		}
+		assertEquals(bf.elementsCount(), threads * perThread);
+		for (int i = 0; i < threads * perThread; i++) {
+			assertEquals(bf.contains(String.valueOf(i)), true);
+		}
+	}
+
+	@Test
+	public void backPressure() throws Exception {
+		System.out.println("back-pressure");
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch writing = new CountDownLatch(1);
+		final BloomFilter<String> bf = BloomFilter.create(100, 0.01);
+		// a filter whose adds wait until released
+		Filter<String> slow = new Filter<String>() {
+			@Override
+			public void add(String element) throws Exception {
+				writing.countDown();
+				release.await();
+				bf.add(element);
+			}
+
+			@Override
+			public boolean contains(String element) {
+				return bf.contains(element);
+			}
+
+			@Override
+			public void clear() {
+				bf.clear();
+			}
+
+			@Override
+			public double expectedFalsePositiveProbability() {
+				return bf.expectedFalsePositiveProbability();
+			}
+
+			@Override
+			public double getFalsePositiveProbability() {
+				return bf.getFalsePositiveProbability();
+			}
+		};
+		try (AsyncIngestor<String> ingestor = new AsyncIngestor<>(slow, 1, 1,
+				1, AsyncIngestor.daemonThreads())) {
+			CompletableFuture<Boolean> first = ingestor.addAsync("a");
+			writing.await();
+			CompletableFuture<Boolean> second = ingestor.tryAddAsync("b");
+			assertEquals(failed(ingestor.tryAddAsync("c")), true);
+			release.countDown();
+			assertEquals(first.get(), true);
+			assertEquals(second.get(), true);
+		}
+		assertEquals(bf.contains("a") && bf.contains("b"), true);
+	}
+
+	@Test
+	public void close() throws Exception {
+		System.out.println("close");
+		BloomFilter<String> bf = BloomFilter.create(1000, 0.01);
+		AsyncIngestor<String> ingestor = new AsyncIngestor<>(bf);
+		List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			futures.add(ingestor.addAsync(String.valueOf(i)));
+		}
+		ingestor.close();
+		// everything queued before close was applied
+		for (CompletableFuture<Boolean> future : futures) {
+			assertEquals(future.isDone() && !failed(future), true);
+		}
+		assertEquals(bf.elementsCount(), 100);
+		assertEquals(failed(ingestor.addAsync("late")), true);
+	}
+
+	@Test
+	public void addFailure() throws Exception {
+		System.out.println("add failure");
+		BloomFilter<String> bf = new BloomFilter<>(10, 1, 7);
+		try (AsyncIngestor<String> ingestor = new AsyncIngestor<>(bf)) {
+			assertEquals(ingestor.addAsync("a").get(), true);
+			// the filter is full
+			assertEquals(failed(ingestor.addAsync("b")), true);
+		}
+	}
+
+	@Test
+	public void containsFailure() throws Exception {
+		System.out.println("contains failure");
+		BloomFilter<Object> bf = BloomFilter.create(1000, 0.01);
+		Object broken = new Object() {
+			@Override
+			public String toString() {
+				throw new IllegalStateException("broken");
+			}
+		};
+		// one writer by default, a dead one would hang everything after
+		try (AsyncIngestor<Object> ingestor = new AsyncIngestor<>(bf)) {
+			assertEquals(failed(ingestor.containsAsync(broken)), true);
+			assertEquals(ingestor.addAsync("evgeni").get(), true);
+			assertEquals(ingestor.containsAsync("evgeni").get(), true);
+		}
+	}
+}
@@ -2,11 +2,18 @@ package test.uni.fmi.dsaproject.bloomfilter.bitset;
 
 import static org.junit.Assert.assertEquals;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.Test;
 
 import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnels;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
 
 public class BloomFilterTest {
 
@@ -86,6 +93,18 @@ public class BloomFilterTest {
 		}
 	}
 
+	@Test
+	public void exceptionSize() throws Exception {
+		System.out.println("exception - bit set size too large");
+		String message = null;
+		try {
+			new BloomFilter<String>(10, Integer.MAX_VALUE / 4, 7);
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Bit set size too large");
+	}
+
 	@Test
 	public void contains() throws Exception {
 		System.out.println("contains");
@@ -114,6 +133,161 @@ public class BloomFilterTest {
 		assertEquals(bf.getBitPerElement(), 10000 / 100, 0);
 	}
 
+	@Test
+	public void addAll() throws Exception {
+		System.out.println("addAll");
+		BloomFilter<String> bf = new BloomFilter<>(10000, 100);
+		bf.addAll(Arrays.asList("evgeni", "sadpanda"));
+		bf.addAll(new String[] { "a", "b", "c" });
+		assertEquals(bf.elementsCount(), 5);
+		assertEquals(bf.containsAll(new String[] { "evgeni", "x", "c" })[0],
+				true);
+		assertEquals(bf.containsAll(new String[] { "evgeni", "x", "c" })[1],
+				false);
+		assertEquals(bf.countContained(new String[] { "evgeni", "sadpanda",
+				"a", "x" }), 3);
+	}
+
+	@Test
+	public void exceptionAddAll() throws Exception {
+		System.out.println("exception - addAll not enough space");
+		BloomFilter<String> bf = new BloomFilter<>(64, 2);
+		String message = null;
+		try {
+			bf.addAll(new String[] { "a", "b", "c" });
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Not enough space");
+		assertEquals(bf.elementsCount(), 0);
+	}
+
+	@Test
+	public void buildParallel() throws Exception {
+		System.out.println("buildParallel");
+		List<String> elements = new ArrayList<>();
+		for (int i = 0; i < 100000; i++) {
+			elements.add(String.valueOf(i));
+		}
+		BloomFilter<String> sequential = new BloomFilter<>(10, 100000, 7);
+		sequential.addAll(elements);
+		BloomFilter<String> parallel = BloomFilter.buildParallel(elements, 10,
+				100000, 7);
+		assertEquals(parallel.elementsCount(), 100000);
+		assertEquals(parallel, sequential);
+	}
+
+	@Test
+	public void union() throws Exception {
+		System.out.println("union");
+		BloomFilter<String> first = new BloomFilter<>(10, 2000, 7);
+		BloomFilter<String> second = new BloomFilter<>(10, 2000, 7);
+		for (int i = 0; i < 1000; i++) {
+			first.add("a" + i);
+			second.add("b" + i);
+		}
+		BloomFilter<String> union = BloomFilter.union(first, second);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(union.contains("a" + i), true);
+			assertEquals(union.contains("b" + i), true);
+		}
+		assertEquals(union.elementsCount(), 2000, 100);
+		assertEquals(first.elementsCount(), 1000);
+	}
+
+	@Test
+	public void unionOverflow() throws Exception {
+		System.out.println("union over the expected number of elements");
+		BloomFilter<String> first = new BloomFilter<>(10, 1000, 7);
+		BloomFilter<String> second = new BloomFilter<>(10, 1000, 7);
+		for (int i = 0; i < 1000; i++) {
+			first.add("a" + i);
+			second.add("b" + i);
+		}
+		first.union(second);
+		assertEquals(first.elementsCount(), 1000);
+		String message = null;
+		try {
+			first.add("c");
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Not enough space");
+		assertEquals(first.elementsCount(), 1000);
+	}
+
+	@Test
+	public void intersect() throws Exception {
+		System.out.println("intersect");
+		BloomFilter<String> first = new BloomFilter<>(10, 2000, 7);
+		BloomFilter<String> second = new BloomFilter<>(10, 2000, 7);
+		for (int i = 0; i < 1000; i++) {
+			first.add("a" + i);
+			second.add("a" + (i + 500));
+		}
+		first.intersect(second);
+		for (int i = 500; i < 1000; i++) {
+			assertEquals(first.contains("a" + i), true);
+		}
+		assertEquals(first.elementsCount(), 500, 100);
+	}
+
+	@Test
+	public void exceptionIncompatible() throws Exception {
+		System.out.println("exception - incompatible bloom filters");
+		String message = null;
+		try {
+			new BloomFilter<String>(10, 100, 7).union(new BloomFilter<String>(
+					10, 100, 6));
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Incompatible bloom filters");
+	}
+
+	@Test
+	public void primitiveKeys() throws Exception {
+		System.out.println("primitive keys");
+		BloomFilter<Long> bf = new BloomFilter<>(10, 1000, 7,
+				HashStrategies.XXHASH64, Funnels.LONG);
+		bf.add(42L);
+		bf.addLong(43L);
+		assertEquals(bf.containsLong(42L), true);
+		assertEquals(bf.contains(43L), true);
+		assertEquals(bf.containsLong(44L), false);
+		assertEquals(bf.elementsCount(), 2);
+	}
+
+	@Test
+	public void byteKeys() throws Exception {
+		System.out.println("byte keys");
+		BloomFilter<String> bf = new BloomFilter<>(10, 1000, 7);
+		byte[] data = "__evgeni__".getBytes(StandardCharsets.UTF_8);
+		bf.add(data, 2, 6);
+		assertEquals(bf.contains("evgeni"), true);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(16);
+		buffer.put("sadpanda".getBytes(StandardCharsets.UTF_8)).flip();
+		bf.addBytes(buffer);
+		assertEquals(bf.contains("sadpanda"), true);
+		assertEquals(bf.containsBytes(buffer), true);
+	}
+
+	@Test
+	public void byteBufferFunnel() throws Exception {
+		System.out.println("byte buffer funnel");
+		BloomFilter<ByteBuffer> bf = new BloomFilter<>(10, 1000, 7,
+				HashStrategies.XXHASH64, Funnels.BYTE_BUFFER);
+		ByteBuffer evgeni = ByteBuffer.wrap("evgeni"
+				.getBytes(StandardCharsets.UTF_8));
+		bf.add(evgeni);
+		assertEquals(evgeni.position(), 0);
+		assertEquals(bf.contains(ByteBuffer.wrap("evgeni"
+				.getBytes(StandardCharsets.UTF_8))), true);
+		assertEquals(bf.containsBytes(evgeni), true);
+		assertEquals(bf.contains(ByteBuffer.wrap("sadpanda"
+				.getBytes(StandardCharsets.UTF_8))), false);
+	}
+
 	@Test
 	public void falseProbability() throws Exception {
 		System.out.println("false probability");
@@ -0,0 +1,110 @@
+package test.uni.fmi.dsaproject.bloomfilter.blocked;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.blocked.BlockedBloomFilter;
+
+public class BlockedBloomFilterTest {
+
+	@Test
+	public void add() throws Exception {
+		System.out.println("add");
+		BlockedBloomFilter<String> bf = new BlockedBloomFilter<>(10, 100, 7);
+		bf.add("evgeni");
+		bf.add("sadpanda");
+		assertEquals(bf.contains("evgeni"), true);
+		assertEquals(bf.contains("sadpanda"), true);
+		assertEquals(bf.elementsCount(), 2);
+		// 1000 bits rounded up to whole blocks
+		assertEquals(bf.getBitSetSize(), 2 * BlockedBloomFilter.BLOCK_BITS);
+	}
+
+	@Test
+	public void clear() throws Exception {
+		System.out.println("clear");
+		BlockedBloomFilter<String> bf = new BlockedBloomFilter<>(10, 100, 7);
+		BlockedBloomFilter<String> empty = new BlockedBloomFilter<>(10, 100,
+				7);
+		for (int i = 0; i < 100; i++) {
+			bf.add(String.valueOf(i));
+		}
+		bf.clear();
+		assertEquals(bf.elementsCount(), 0);
+		assertEquals(bf.contains("0"), false);
+		assertEquals(bf, empty);
+	}
+
+	@Test
+	public void falsePositiveProbability() throws Exception {
+		System.out.println("blocked false positive probability");
+		BlockedBloomFilter<String> bf = new BlockedBloomFilter<>(10, 100000,
+				7);
+		for (int i = 0; i < 100000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		for (int i = 0; i < 100000; i++) {
+			assertEquals(bf.contains(String.valueOf(i)), true);
+		}
+		int falsePositives = 0;
+		for (int i = 100000; i < 300000; i++) {
+			if (bf.contains(String.valueOf(i))) {
+				falsePositives++;
+			}
+		}
+		// about 1900 expected give or take 45, the bounds are far wider
+		double measured = falsePositives / 200000.0;
+		double expected = bf.getFalsePositiveProbability();
+		assertTrue(measured > 0.7 * expected);
+		assertTrue(measured < 1.3 * expected);
+		// the block model is worse than the classic one at the same size
+		assertTrue(expected > Math.pow(1 - Math.exp(-7 / 10.0), 7));
+	}
+
+	@Test
+	public void beyondIntBits() throws Exception {
+		System.out.println("blocked filter of 2^31 bits");
+		// 256 MB, one bit past Integer.MAX_VALUE
+		BlockedBloomFilter<String> bf = new BlockedBloomFilter<>(8, 1 << 28,
+				6);
+		assertEquals(bf.getBitSetSize(), 1L << 31);
+		bf.add("evgeni");
+		assertEquals(bf.contains("evgeni"), true);
+		// the same bits per element as a small filter, the same estimate
+		BlockedBloomFilter<String> small = new BlockedBloomFilter<>(8,
+				1 << 16, 6);
+		assertEquals(bf.expectedFalsePositiveProbability(),
+				small.expectedFalsePositiveProbability(), 1e-12);
+		assertTrue(bf.expectedFalsePositiveProbability() < 0.03);
+	}
+
+	@Test
+	public void exceptionSize() throws Exception {
+		System.out.println("exception - blocked size");
+		String message = null;
+		try {
+			new BlockedBloomFilter<String>(64, Integer.MAX_VALUE, 7);
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Bit set size too large");
+	}
+
+	@Test
+	public void exceptionCount() throws Exception {
+		System.out.println("exception - not enough space");
+		BlockedBloomFilter<String> bf = new BlockedBloomFilter<>(10, 4, 7);
+		String message = null;
+		try {
+			for (int i = 0; i < 5; i++) {
+				bf.add(String.valueOf(i));
+			}
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Not enough space");
+		assertEquals(bf.elementsCount(), 4);
+	}
+}
@@ -0,0 +1,152 @@
+package test.uni.fmi.dsaproject.bloomfilter.compressed;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.compressed.CompressedBitmap;
+import src.uni.fmi.dsaproject.bloomfilter.compressed.CompressedBloomFilter;
+
+public class CompressedBloomFilterTest {
+	private Random r = new Random();
+
+	private long[] random(long bitSize, double density) {
+		long[] words = new long[(int) ((bitSize + 63) >>> 6)];
+		for (long i = 0; i < bitSize; i++) {
+			if (r.nextDouble() < density) {
+				words[(int) (i >>> 6)] |= 1L << i;
+			}
+		}
+		return words;
+	}
+
+	private void checkRoundTrip(long[] words, long bitSize) throws Exception {
+		CompressedBitmap bitmap = CompressedBitmap.encode(words, bitSize);
+		assertArrayEquals(bitmap.toLongArray(), words);
+		long cardinality = 0;
+		for (long i = 0; i < bitSize; i++) {
+			boolean set = (words[(int) (i >>> 6)] & (1L << i)) != 0;
+			assertEquals(bitmap.get(i), set);
+			cardinality += set ? 1 : 0;
+		}
+		assertEquals(bitmap.cardinality(), cardinality);
+		CompressedBitmap read = CompressedBitmap.wrap(bitmap.toByteBuffer());
+		assertArrayEquals(read.toLongArray(), words);
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		System.out.println("compressed round trip");
+		for (double density : new double[] { 0, 0.001, 0.05, 0.5, 1 }) {
+			long bitSize = 200000 + r.nextInt(1000);
+			checkRoundTrip(random(bitSize, density), bitSize);
+		}
+		checkRoundTrip(new long[0], 0);
+		checkRoundTrip(random(100, 0.5), 100);
+	}
+
+	@Test
+	public void containers() throws Exception {
+		System.out.println("compressed containers");
+		long[] words = new long[4 * CompressedBitmap.CHUNK_WORDS];
+		// chunk 0 empty, 1 a few bits, 2 two long runs, 3 random half full
+		words[CompressedBitmap.CHUNK_WORDS + 3] = 0x8001L;
+		for (int i = 2 * CompressedBitmap.CHUNK_WORDS + 10; i < 2
+				* CompressedBitmap.CHUNK_WORDS + 500; i++) {
+			words[i] = -1L;
+		}
+		words[2 * CompressedBitmap.CHUNK_WORDS + 600] = 0x00FFFF00L;
+		for (int i = 3 * CompressedBitmap.CHUNK_WORDS; i < words.length; i++) {
+			words[i] = r.nextLong();
+		}
+		CompressedBitmap bitmap = CompressedBitmap.encode(words,
+				words.length * 64L);
+		assertEquals(bitmap.containerType(0), CompressedBitmap.SPARSE);
+		assertEquals(bitmap.containerType(1), CompressedBitmap.SPARSE);
+		assertEquals(bitmap.containerType(2), CompressedBitmap.RUNS);
+		assertEquals(bitmap.containerType(3), CompressedBitmap.RAW);
+		checkRoundTrip(words, words.length * 64L);
+	}
+
+	@Test
+	public void emptyFilter() throws Exception {
+		System.out.println("compressed empty filter");
+		BloomFilter<String> bf = BloomFilter.create(10000000, 0.01);
+		CompressedBloomFilter<String> compressed = bf.compress();
+		// 96 Mbit raw would be 12 MB
+		assertEquals(compressed.sizeInBytes() < 20000, true);
+		assertEquals(compressed.contains("evgeni"), false);
+		bf.add("evgeni");
+		bf.clear();
+		assertEquals(bf.compress().sizeInBytes(), compressed.sizeInBytes());
+	}
+
+	@Test
+	public void containsOnCompressed() throws Exception {
+		System.out.println("contains on compressed filter");
+		BloomFilter<String> bf = BloomFilter.create(1000000, 0.01);
+		for (int i = 0; i < 5000; i++) {
+			bf.add("a" + i);
+		}
+		CompressedBloomFilter<String> compressed = bf.compress();
+		for (int i = 0; i < 5000; i++) {
+			assertEquals(compressed.contains("a" + i), true);
+		}
+		for (int i = 0; i < 5000; i++) {
+			assertEquals(compressed.contains("b" + i), bf.contains("b" + i));
+		}
+		assertEquals(compressed.elementsCount(), 5000);
+		assertEquals(compressed.getFalsePositiveProbability(),
+				bf.getFalsePositiveProbability(), 0);
+		assertEquals(compressed.getBits().cardinality(), bf.cardinality());
+	}
+
+	@Test
+	public void serialization() throws Exception {
+		System.out.println("compressed serialization");
+		BloomFilter<String> bf = BloomFilter.create(100000, 0.01);
+		for (int i = 0; i < 1000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		bf.writeCompressedTo(Channels.newChannel(out));
+		byte[] bytes = out.toByteArray();
+		assertEquals(bytes.length, bf.compress().sizeInBytes());
+
+		BloomFilter<String> read = BloomFilter.readCompressedFrom(Channels
+				.newChannel(new ByteArrayInputStream(bytes)));
+		assertEquals(read, bf);
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		assertEquals(BloomFilter.readCompressedFrom(buffer), bf);
+		assertEquals(buffer.remaining(), 0);
+		CompressedBloomFilter<String> wrapped = CompressedBloomFilter
+				.readFrom(ByteBuffer.wrap(bytes));
+		assertEquals(wrapped.contains("999"), true);
+
+		// the uncompressed reader refuses the compressed file
+		String message = null;
+		try {
+			BloomFilter.readFrom(ByteBuffer.wrap(bytes));
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Not a bloom filter file");
+
+		bytes[bytes.length - 20] ^= 1;
+		message = null;
+		try {
+			BloomFilter.readCompressedFrom(ByteBuffer.wrap(bytes));
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Checksum mismatch");
+	}
+}
@@ -0,0 +1,85 @@
+package test.uni.fmi.dsaproject.bloomfilter.concurrent;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.concurrent.ConcurrentBloomFilter;
+
+public class ConcurrentBloomFilterTest {
+
+	@Test
+	public void add() throws Exception {
+		System.out.println("add");
+		ConcurrentBloomFilter<String> bf = new ConcurrentBloomFilter<>(64, 10);
+		bf.add("evgeni");
+		bf.add("sadpanda");
+		assertEquals(bf.contains("evgeni"), true);
+		assertEquals(bf.contains("sadpanda"), true);
+		assertEquals(bf.elementsCount(), 2);
+	}
+
+	@Test
+	public void concurrentAdd() throws Exception {
+		System.out.println("concurrent add");
+		final int threads = 8;
+		final int perThread = 10000;
+		final ConcurrentBloomFilter<String> bf = new ConcurrentBloomFilter<>(
+				10, threads * perThread, 7);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				final int from = t * perThread;
+				futures.add(pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						for (int i = from; i < from + perThread; i++) {
+							bf.add(String.valueOf(i));
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(bf.elementsCount(), threads * perThread);
+		for (int i = 0; i < threads * perThread; i++) {
+			assertEquals(bf.contains(String.valueOf(i)), true);
+		}
+	}
+
+	@Test
+	public void clear() throws Exception {
+		System.out.println("clear");
+		ConcurrentBloomFilter<String> bf = new ConcurrentBloomFilter<>(10000,
+				100);
+		bf.add("evgeni");
+		bf.clear();
+		assertEquals(bf.contains("evgeni"), false);
+		assertEquals(bf.elementsCount(), 0);
+	}
+
+	@Test
+	public void exceptionCount() throws Exception {
+		System.out.println("exception - not enough space");
+		ConcurrentBloomFilter<String> bf = new ConcurrentBloomFilter<>(64, 1);
+		bf.add("a");
+		try {
+			bf.add("b");
+		} catch (Exception e) {
+			assertEquals(e.getMessage(), "Not enough space");
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package test.uni.fmi.dsaproject.bloomfilter.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.Filter;
+import src.uni.fmi.dsaproject.bloomfilter.concurrent.ConcurrentBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.core.StorageBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.cuckoo.CuckooFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnels;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.scalable.ScalableBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.storage.MappedFileStorage;
+import src.uni.fmi.dsaproject.bloomfilter.storage.StorageType;
+
+public class StorageBloomFilterTest {
+
+	@Test
+	public void storages() throws Exception {
+		System.out.println("storages");
+		List<StorageBloomFilter<String>> filters = new ArrayList<>();
+		for (StorageType type : StorageType.values()) {
+			StorageBloomFilter<String> bf = StorageBloomFilter.create(1000,
+					0.01, type);
+			for (int i = 0; i < 1000; i++) {
+				bf.add(String.valueOf(i));
+			}
+			for (int i = 0; i < 1000; i++) {
+				assertEquals(bf.contains(String.valueOf(i)), true);
+			}
+			assertEquals(bf.isThreadSafe(), type == StorageType.ATOMIC_LONGS);
+			filters.add(bf);
+		}
+		// the same elements set the same bits whatever the backend
+		for (StorageBloomFilter<String> bf : filters) {
+			assertEquals(bf, filters.get(0));
+			assertEquals(bf.cardinality(), filters.get(0).cardinality());
+		}
+		filters.get(0).clear();
+		assertEquals(filters.get(0).cardinality(), 0);
+		assertEquals(filters.get(0).equals(filters.get(1)), false);
+	}
+
+	@Test
+	public void mapped() throws Exception {
+		System.out.println("mapped storage");
+		Path path = Files.createTempFile("bloom", ".bits");
+		Files.delete(path);
+		try {
+			StorageBloomFilter<String> bf;
+			try (MappedFileStorage storage = MappedFileStorage.create(path,
+					9600)) {
+				bf = new StorageBloomFilter<>(storage, 1000, 7);
+				bf.add("evgeni");
+				bf.add("sadpanda");
+			}
+			try (MappedFileStorage storage = MappedFileStorage.open(path,
+					9600, true)) {
+				StorageBloomFilter<String> reopened = new StorageBloomFilter<>(
+						storage, 1000, 7);
+				assertEquals(reopened.contains("evgeni"), true);
+				assertEquals(reopened.contains("sadpanda"), true);
+				assertEquals(reopened.cardinality() > 0, true);
+			}
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	@Test(expected = Exception.class)
+	public void exceptionMappedSize() throws Exception {
+		System.out.println("exception - mapped size");
+		Path path = Files.createTempFile("bloom", ".bits");
+		try {
+			MappedFileStorage.open(path, 9600, true);
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	@Test
+	public void filters() throws Exception {
+		System.out.println("filter interface");
+		List<Filter<String>> filters = new ArrayList<>();
+		filters.add(StorageBloomFilter.<String> create(100, 0.01,
+				StorageType.LONGS));
+		filters.add(new src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter<String>(
+				10, 100, 7));
+		filters.add(new ConcurrentBloomFilter<String>(10, 100, 7));
+		filters.add(new CuckooFilter<String>(100));
+		filters.add(new ScalableBloomFilter<String>(10, 0.01));
+		for (Filter<String> filter : filters) {
+			filter.add("evgeni");
+			assertEquals(filter.contains("evgeni"), true);
+			assertEquals(filter.getFalsePositiveProbability() > 0, true);
+			filter.clear();
+			assertEquals(filter.getFalsePositiveProbability(), 0, 0);
+		}
+	}
+
+	@Test
+	public void containsAllLongs() throws Exception {
+		System.out.println("containsAllLongs");
+		StorageBloomFilter<String> bf = StorageBloomFilter.create(10000,
+				0.01, StorageType.LONGS);
+		long[] values = new long[5000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i * 31L;
+		}
+		bf.addAllLongs(values);
+		long[] queries = new long[10000];
+		for (int i = 0; i < queries.length; i++) {
+			queries[i] = i * 31L;
+		}
+		boolean[] result = bf.containsAllLongs(queries);
+		for (int i = 0; i < queries.length; i++) {
+			assertEquals(result[i], bf.containsLong(queries[i]));
+		}
+		assertEquals(bf.elementsCount(), 5000);
+	}
+
+	@Test
+	public void union() throws Exception {
+		System.out.println("storage union");
+		for (StorageType type : StorageType.values()) {
+			StorageBloomFilter<String> first = StorageBloomFilter.create(
+					1000, 0.01, StorageType.LONGS);
+			StorageBloomFilter<String> second = StorageBloomFilter.create(
+					1000, 0.01, type);
+			for (int i = 0; i < 300; i++) {
+				first.add("a" + i);
+				second.add("b" + i);
+			}
+			first.union(second);
+			for (int i = 0; i < 300; i++) {
+				assertEquals(first.contains("a" + i), true);
+				assertEquals(first.contains("b" + i), true);
+			}
+			assertEquals(first.elementsCount(), 600, 30);
+			// first now holds every bit of second
+			long[] before = second.toLongArray();
+			second.intersect(first);
+			assertArrayEquals(second.toLongArray(), before);
+		}
+	}
+
+	@Test(expected = Exception.class)
+	public void exceptionIncompatible() throws Exception {
+		System.out.println("exception - incompatible storages");
+		StorageBloomFilter.<String> create(1000, 0.01, StorageType.LONGS)
+				.union(StorageBloomFilter.<String> create(2000, 0.01,
+						StorageType.LONGS));
+	}
+
+	@Test
+	public void byteBufferKeys() throws Exception {
+		System.out.println("byte buffer keys");
+		StorageBloomFilter<ByteBuffer> bf = StorageBloomFilter.create(1000,
+				0.01, StorageType.LONGS, HashStrategies.XXHASH64,
+				Funnels.BYTE_BUFFER);
+		ByteBuffer evgeni = ByteBuffer.wrap("evgeni"
+				.getBytes(StandardCharsets.UTF_8));
+		bf.add(evgeni);
+		assertEquals(bf.containsBytes(evgeni), true);
+		assertEquals(bf.contains(ByteBuffer.wrap("sadpanda"
+				.getBytes(StandardCharsets.UTF_8))), false);
+		// the same bytes as a string key
+		StorageBloomFilter<String> strings = StorageBloomFilter.create(1000,
+				0.01, StorageType.LONGS);
+		strings.addBytes(evgeni);
+		assertEquals(strings.contains("evgeni"), true);
+	}
+}
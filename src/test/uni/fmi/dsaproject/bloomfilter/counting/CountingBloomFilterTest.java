@@ -0,0 +1,64 @@
+package test.uni.fmi.dsaproject.bloomfilter.counting;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.counting.CountingBloomFilter;
+
+public class CountingBloomFilterTest {
+
+	@Test
+	public void remove() throws Exception {
+		System.out.println("remove");
+		CountingBloomFilter<String> bf = new CountingBloomFilter<>(10000, 100);
+		bf.add("evgeni");
+		bf.add("sadpanda");
+		assertEquals(bf.remove("evgeni"), true);
+		assertEquals(bf.contains("evgeni"), false);
+		assertEquals(bf.contains("sadpanda"), true);
+		assertEquals(bf.elementsCount(), 1);
+		assertEquals(bf.remove("evgeni"), false);
+		assertEquals(bf.elementsCount(), 1);
+	}
+
+	@Test
+	public void duplicates() throws Exception {
+		System.out.println("duplicates");
+		CountingBloomFilter<String> bf = new CountingBloomFilter<>(10000, 100);
+		bf.add("evgeni");
+		bf.add("evgeni");
+		bf.remove("evgeni");
+		assertEquals(bf.contains("evgeni"), true);
+		bf.remove("evgeni");
+		assertEquals(bf.contains("evgeni"), false);
+	}
+
+	@Test
+	public void saturation() throws Exception {
+		System.out.println("saturation");
+		CountingBloomFilter<String> bf = new CountingBloomFilter<>(10, 100, 7);
+		for (int i = 0; i < 20; i++) {
+			bf.add("evgeni");
+		}
+		for (int i = 0; i < 20; i++) {
+			bf.remove("evgeni");
+		}
+		// saturated counters are never decremented
+		assertEquals(bf.contains("evgeni"), true);
+	}
+
+	@Test
+	public void toBloomFilter() throws Exception {
+		System.out.println("toBloomFilter");
+		CountingBloomFilter<String> counting = new CountingBloomFilter<>(10,
+				1000, 7);
+		BloomFilter<String> expected = new BloomFilter<>(10, 1000, 7);
+		for (int i = 0; i < 1000; i++) {
+			counting.add(String.valueOf(i));
+			expected.add(String.valueOf(i));
+		}
+		assertEquals(counting.toBloomFilter(), expected);
+	}
+}
@@ -0,0 +1,70 @@
+package test.uni.fmi.dsaproject.bloomfilter.cuckoo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.cuckoo.CuckooFilter;
+
+public class CuckooFilterTest {
+
+	@Test
+	public void add() throws Exception {
+		System.out.println("add");
+		CuckooFilter<String> cf = new CuckooFilter<>(100);
+		cf.add("evgeni");
+		cf.add("sadpanda");
+		assertEquals(cf.contains("evgeni"), true);
+		assertEquals(cf.contains("sadpanda"), true);
+		assertEquals(cf.elementsCount(), 2);
+	}
+
+	@Test
+	public void remove() throws Exception {
+		System.out.println("remove");
+		CuckooFilter<String> cf = new CuckooFilter<>(100);
+		cf.add("evgeni");
+		cf.add("sadpanda");
+		assertEquals(cf.remove("evgeni"), true);
+		assertEquals(cf.contains("evgeni"), false);
+		assertEquals(cf.contains("sadpanda"), true);
+		assertEquals(cf.remove("evgeni"), false);
+		assertEquals(cf.elementsCount(), 1);
+	}
+
+	@Test
+	public void full() throws Exception {
+		System.out.println("full load");
+		CuckooFilter<String> cf = new CuckooFilter<>(100000);
+		for (int i = 0; i < 100000; i++) {
+			cf.add(String.valueOf(i));
+		}
+		for (int i = 0; i < 100000; i++) {
+			assertEquals(cf.contains(String.valueOf(i)), true);
+		}
+		int falsePositives = 0;
+		for (int i = 100000; i < 200000; i++) {
+			if (cf.contains(String.valueOf(i))) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives / 100000.0 < 2 * cf
+				.getFalsePositiveProbability());
+	}
+
+	@Test
+	public void exceptionCount() throws Exception {
+		System.out.println("exception - not enough space");
+		CuckooFilter<String> cf = new CuckooFilter<>(4);
+		String message = null;
+		try {
+			for (int i = 0; i < 100; i++) {
+				cf.add(String.valueOf(i));
+			}
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Not enough space");
+	}
+}
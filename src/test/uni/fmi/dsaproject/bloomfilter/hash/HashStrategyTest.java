@@ -0,0 +1,106 @@
+package test.uni.fmi.dsaproject.bloomfilter.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategy;
+
+public class HashStrategyTest {
+
+	private static long xxhash(String s) {
+		byte[] data = s.getBytes(StandardCharsets.US_ASCII);
+		return HashStrategies.XXHASH64.hash(data, 0, data.length);
+	}
+
+	@Test
+	public void xxhash64() {
+		System.out.println("xxhash64 reference values");
+		assertEquals(xxhash(""), 0xEF46DB3751D8E999L);
+		assertEquals(xxhash("a"), 0xD24EC4F1A98C6E5BL);
+		assertEquals(xxhash("abc"), 0x44BC2CF5AD770999L);
+		assertEquals(
+				xxhash("Nobody inspects the spammish repetition"),
+				0xFBCEA83C8A378BF1L);
+	}
+
+	@Test
+	public void offset() {
+		System.out.println("hash of a slice");
+		byte[] data = "__evgeni__".getBytes(StandardCharsets.US_ASCII);
+		assertEquals(HashStrategies.XXHASH64.hash(data, 2, 6), xxhash("evgeni"));
+	}
+
+	@Test
+	public void primitives() {
+		System.out.println("hash of primitives");
+		HashStrategy xxhash = HashStrategies.XXHASH64;
+		HashStrategy md5 = HashStrategies.MD5;
+		long value = 0x0102030405060708L;
+		byte[] data = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+				.putLong(value).array();
+		assertEquals(xxhash.hashLong(value), xxhash.hash(data, 0, 8));
+		assertEquals(md5.hashLong(value), md5.hash(data, 0, 8));
+		assertEquals(xxhash.hashInt((int) value), xxhash.hash(data, 0, 4));
+	}
+
+	@Test
+	public void byteBuffer() {
+		System.out.println("hash of a direct buffer");
+		Random r = new Random(42);
+		for (int length = 0; length < 100; length++) {
+			byte[] data = new byte[length + 3];
+			r.nextBytes(data);
+			long expected = HashStrategies.XXHASH64.hash(data, 3, length);
+			ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+			direct.put(data).position(3);
+			assertEquals(HashStrategies.XXHASH64.hash(direct), expected);
+			direct.order(ByteOrder.LITTLE_ENDIAN);
+			assertEquals(HashStrategies.XXHASH64.hash(direct), expected);
+			assertEquals(direct.position(), 3);
+			assertEquals(HashStrategies.MD5.hash(direct),
+					HashStrategies.MD5.hash(data, 3, length));
+		}
+	}
+
+	@Test
+	public void indexRange() {
+		System.out.println("index range");
+		for (int i = 0; i < 1000; i++) {
+			long hash1 = xxhash(String.valueOf(i));
+			long hash2 = HashStrategies.secondHash(hash1);
+			for (int k = 0; k < 20; k++) {
+				long index = HashStrategies.index(hash1, hash2, k, 1000);
+				assertTrue(index >= 0 && index < 1000);
+			}
+		}
+	}
+
+	@Test
+	public void forId() throws Exception {
+		System.out.println("strategy by id");
+		assertEquals(HashStrategies.forId(HashStrategies.XXHASH64.getId()),
+				HashStrategies.XXHASH64);
+		assertEquals(HashStrategies.forId(HashStrategies.MD5.getId()),
+				HashStrategies.MD5);
+	}
+
+	@Test
+	public void md5Filter() throws Exception {
+		System.out.println("md5 filter");
+		HashStrategy md5 = HashStrategies.MD5;
+		BloomFilter<String> bf = new BloomFilter<>(10000, 100, md5);
+		bf.add("evgeni");
+		assertEquals(bf.contains("evgeni"), true);
+		assertEquals(bf.contains("sadpanda"), false);
+		assertEquals(bf.equals(new BloomFilter<String>(10000, 100)), false);
+	}
+}
@@ -0,0 +1,187 @@
+package test.uni.fmi.dsaproject.bloomfilter.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterFormat;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterHeader;
+import src.uni.fmi.dsaproject.bloomfilter.large.LargeBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.mapped.MappedBloomFilter;
+
+public class FilterFormatTest {
+
+	private static byte[] write(BloomFilter<String> bf) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		bf.writeTo(Channels.newChannel(out));
+		return out.toByteArray();
+	}
+
+	private static BloomFilter<String> filled() throws Exception {
+		BloomFilter<String> bf = new BloomFilter<>(10, 100000, 7,
+				HashStrategies.MD5);
+		for (int i = 0; i < 50000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		return bf;
+	}
+
+	@Test
+	public void channel() throws Exception {
+		System.out.println("write and read through a channel");
+		BloomFilter<String> bf = filled();
+		byte[] data = write(bf);
+		assertEquals(data.length, 64 + (1000000 + 63) / 64 * 8 + 8);
+		BloomFilter<String> read = BloomFilter.readFrom(Channels
+				.newChannel(new ByteArrayInputStream(data)));
+		assertEquals(read, bf);
+		assertEquals(read.getHashStrategy(), HashStrategies.MD5);
+	}
+
+	@Test
+	public void buffer() throws Exception {
+		System.out.println("read from a buffer");
+		BloomFilter<String> bf = filled();
+		byte[] data = write(bf);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(data.length + 3);
+		buffer.put(new byte[3]).put(data).flip().position(3);
+		assertEquals(BloomFilter.readFrom(buffer), bf);
+		assertEquals(buffer.remaining(), 0);
+	}
+
+	@Test
+	public void booleans() throws Exception {
+		System.out.println("booleans filter uses the same format");
+		BloomFilter<String> bf = filled();
+		src.uni.fmi.dsaproject.bloomfilter.booleans.BloomFilter<String> read;
+		read = src.uni.fmi.dsaproject.bloomfilter.booleans.BloomFilter
+				.readFrom(ByteBuffer.wrap(write(bf)));
+		assertEquals(read.elementsCount(), 50000);
+		for (int i = 0; i < 50000; i++) {
+			assertEquals(read.contains(String.valueOf(i)), true);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		read.writeTo(Channels.newChannel(out));
+		assertEquals(BloomFilter.readFrom(ByteBuffer.wrap(out.toByteArray())),
+				bf);
+	}
+
+	@Test
+	public void large() throws Exception {
+		System.out.println("large filter");
+		LargeBloomFilter<String> bf = new LargeBloomFilter<>(10, 10000, 7);
+		for (int i = 0; i < 10000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		bf.writeTo(Channels.newChannel(out));
+		assertEquals(LargeBloomFilter.readFrom(Channels
+				.newChannel(new ByteArrayInputStream(out.toByteArray()))), bf);
+	}
+
+	@Test
+	public void mapped() throws Exception {
+		System.out.println("written filter opens as a mapped filter");
+		Path file = Files.createTempFile("bloomfilter", ".bf");
+		try {
+			try (FileChannel channel = FileChannel.open(file,
+					StandardOpenOption.WRITE)) {
+				filled().writeTo(channel);
+			}
+			try (MappedBloomFilter<String> bf = MappedBloomFilter.open(file,
+					true)) {
+				assertEquals(bf.elementsCount(), 50000);
+				for (int i = 0; i < 50000; i++) {
+					assertEquals(bf.contains(String.valueOf(i)), true);
+				}
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void checksum() throws Exception {
+		System.out.println("checksum mismatch");
+		byte[] data = write(filled());
+		data[100] ^= 1;
+		String message = null;
+		try {
+			BloomFilter.readFrom(ByteBuffer.wrap(data));
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Checksum mismatch");
+
+		// the header is covered too, a changed count still parses
+		data = write(filled());
+		data[FilterFormat.COUNT_OFFSET] ^= 1;
+		message = null;
+		try {
+			BloomFilter.readFrom(ByteBuffer.wrap(data));
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Checksum mismatch");
+	}
+
+	@Test
+	public void version2() throws Exception {
+		System.out.println("version 2 files checksum the body only");
+		BloomFilter<String> bf = filled();
+		byte[] data = write(bf);
+		ByteBuffer buffer = ByteBuffer.wrap(data).order(
+				ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(4, 2);
+		CRC32 crc = new CRC32();
+		crc.update(data, 64, data.length - 64 - 8);
+		buffer.putLong(data.length - 8, crc.getValue());
+		assertEquals(BloomFilter.readFrom(ByteBuffer.wrap(data)), bf);
+		assertEquals(BloomFilter.readFrom(Channels
+				.newChannel(new ByteArrayInputStream(data))), bf);
+	}
+
+	@Test
+	public void headerVersion() throws Exception {
+		System.out.println("headers are written in their own version");
+		for (int version = 1; version <= FilterFormat.VERSION; version++) {
+			ByteBuffer buffer = ByteBuffer.allocate(FilterFormat.HEADER_SIZE)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			FilterFormat.writeHeader(buffer, new FilterHeader(version, 1000,
+					7, 1, 10, 100, 42));
+			assertEquals(buffer.getInt(4), version);
+			buffer.flip();
+			FilterHeader read = FilterFormat.readHeader(buffer);
+			assertEquals(read.getVersion(), version);
+			assertEquals(read.getExpectedNumberOfElements(), 100);
+			assertEquals(read.getElementsCount(), 42);
+		}
+	}
+
+	@Test
+	public void truncated() throws Exception {
+		System.out.println("truncated");
+		byte[] data = write(filled());
+		String message = null;
+		try {
+			BloomFilter.readFrom(Channels.newChannel(new ByteArrayInputStream(
+					data, 0, data.length - 9)));
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Truncated bloom filter file");
+	}
+}
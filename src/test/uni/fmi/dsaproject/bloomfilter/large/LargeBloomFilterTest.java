@@ -0,0 +1,150 @@
+package test.uni.fmi.dsaproject.bloomfilter.large;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.io.FilterFormat;
+import src.uni.fmi.dsaproject.bloomfilter.large.LargeBloomFilter;
+
+public class LargeBloomFilterTest {
+
+	// remembers the offsets and values of the nonzero bytes written to it
+	private static class NonZeroChannel implements WritableByteChannel {
+		private final List<Long> offsets = new ArrayList<>();
+		private final List<Byte> values = new ArrayList<>();
+		private long position = 0;
+
+		@Override
+		public int write(ByteBuffer src) {
+			int written = src.remaining();
+			while (src.hasRemaining()) {
+				byte value = src.get();
+				if (value != 0) {
+					this.offsets.add(this.position);
+					this.values.add(value);
+				}
+				this.position++;
+			}
+			return written;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	private static byte[] write(LargeBloomFilter<String> bf) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		bf.writeTo(Channels.newChannel(out));
+		return out.toByteArray();
+	}
+
+	@Test
+	public void pageBoundary() throws Exception {
+		System.out.println("large filter across page boundaries");
+		// 157 words in pages of two, the last page holds a single word
+		LargeBloomFilter<String> small = new LargeBloomFilter<>(10, 1000, 7,
+				HashStrategies.XXHASH64, 1);
+		LargeBloomFilter<String> large = new LargeBloomFilter<>(10, 1000, 7);
+		for (int i = 0; i < 1000; i++) {
+			small.add(String.valueOf(i));
+			large.add(String.valueOf(i));
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(small.contains(String.valueOf(i)), true);
+		}
+		// every bit lands in the same place whatever the page size
+		byte[] data = write(small);
+		assertArrayEquals(data, write(large));
+		LargeBloomFilter<String> read = LargeBloomFilter.readFrom(Channels
+				.newChannel(new ByteArrayInputStream(data)));
+		assertEquals(read, large);
+	}
+
+	@Test
+	public void indexAboveIntMax() throws Exception {
+		System.out.println("large filter bit above Integer.MAX_VALUE");
+		// 2^31 + 2^21 bits, about 256 MB
+		int bitsPerElement = (1 << 30) + (1 << 20);
+		LargeBloomFilter<String> bf = new LargeBloomFilter<>(bitsPerElement,
+				2, 1, HashStrategies.XXHASH64);
+		long bitSetSize = bf.getBitSetSize();
+		assertEquals(bitSetSize > Integer.MAX_VALUE, true);
+		// one hash function, look for an element whose only bit is that high
+		String element = null;
+		long index = 0;
+		for (int i = 0; element == null; i++) {
+			byte[] data = String.valueOf(i).getBytes(StandardCharsets.UTF_8);
+			long hash1 = HashStrategies.XXHASH64.hash(data, 0, data.length);
+			index = HashStrategies.index(hash1,
+					HashStrategies.secondHash(hash1), 0, bitSetSize);
+			if (index > Integer.MAX_VALUE) {
+				element = String.valueOf(i);
+			}
+		}
+		bf.add(element);
+		assertEquals(bf.contains(element), true);
+		// exactly that bit is set in the written words, which are little endian
+		NonZeroChannel channel = new NonZeroChannel();
+		bf.writeTo(channel);
+		List<Long> body = new ArrayList<>();
+		List<Byte> bits = new ArrayList<>();
+		for (int i = 0; i < channel.offsets.size(); i++) {
+			long offset = channel.offsets.get(i) - FilterFormat.HEADER_SIZE;
+			if (offset >= 0 && offset < (bitSetSize + 63) / 64 * 8) {
+				body.add(offset);
+				bits.add(channel.values.get(i));
+			}
+		}
+		assertEquals(body.size(), 1);
+		assertEquals((long) body.get(0), index / 8);
+		assertEquals((byte) bits.get(0), (byte) (1 << (index % 8)));
+	}
+
+	@Test
+	public void exceptionElementsCount() throws Exception {
+		System.out.println("exception - elements count above capacity");
+		LargeBloomFilter<String> bf = new LargeBloomFilter<>(10, 10, 7);
+		ByteBuffer buffer = ByteBuffer.wrap(write(bf)).order(
+				ByteOrder.LITTLE_ENDIAN);
+		buffer.putLong(FilterFormat.COUNT_OFFSET, 11);
+		String message = null;
+		try {
+			LargeBloomFilter.readFrom(buffer);
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Bloom filter does not fit this format");
+	}
+
+	@Test
+	public void exceptionPageSize() throws Exception {
+		System.out.println("exception - page size");
+		String message = null;
+		try {
+			new LargeBloomFilter<String>(10, 1000, 7, HashStrategies.XXHASH64,
+					31);
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Invalid page size");
+	}
+}
@@ -0,0 +1,76 @@
+package test.uni.fmi.dsaproject.bloomfilter.mapped;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.mapped.MappedBloomFilter;
+
+public class MappedBloomFilterTest {
+
+	private Path dir;
+	private Path file;
+
+	@Before
+	public void setUp() throws Exception {
+		this.dir = Files.createTempDirectory("bloomfilter");
+		this.file = this.dir.resolve("filter.bf");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(this.file);
+		Files.deleteIfExists(this.dir);
+	}
+
+	@Test
+	public void reopen() throws Exception {
+		System.out.println("reopen");
+		try (MappedBloomFilter<String> bf = MappedBloomFilter.create(
+				this.file, 10, 1000, 7)) {
+			for (int i = 0; i < 1000; i++) {
+				bf.add(String.valueOf(i));
+			}
+		}
+		try (MappedBloomFilter<String> bf = MappedBloomFilter.open(this.file,
+				true)) {
+			assertEquals(bf.elementsCount(), 1000);
+			assertEquals(bf.getHashFunctionsCount(), 7);
+			assertEquals(bf.getBitSetSize(), 10000);
+			for (int i = 0; i < 1000; i++) {
+				assertEquals(bf.contains(String.valueOf(i)), true);
+			}
+		}
+	}
+
+	@Test
+	public void readOnly() throws Exception {
+		System.out.println("read-only");
+		MappedBloomFilter.create(this.file, 10, 100, 7).close();
+		try (MappedBloomFilter<String> bf = MappedBloomFilter.open(this.file,
+				true)) {
+			bf.add("evgeni");
+			fail("add on a read-only filter");
+		} catch (Exception e) {
+			assertEquals(e.getMessage(), "Bloom filter is read-only");
+		}
+	}
+
+	@Test
+	public void notAFilter() throws Exception {
+		System.out.println("not a bloom filter file");
+		Files.write(this.file, new byte[128]);
+		try {
+			MappedBloomFilter.open(this.file, true);
+			fail("opened a file that is not a bloom filter");
+		} catch (Exception e) {
+			assertEquals(e.getMessage(), "Not a bloom filter file");
+		}
+	}
+}
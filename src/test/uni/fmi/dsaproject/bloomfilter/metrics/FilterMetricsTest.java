@@ -0,0 +1,113 @@
+package test.uni.fmi.dsaproject.bloomfilter.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.concurrent.ConcurrentBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.metrics.FilterMetrics;
+import src.uni.fmi.dsaproject.bloomfilter.metrics.LatencyHistogram;
+import src.uni.fmi.dsaproject.bloomfilter.metrics.MetricsListener;
+
+public class FilterMetricsTest {
+
+	@Test
+	public void counters() throws Exception {
+		System.out.println("counters");
+		BloomFilter<String> bf = new BloomFilter<>(10, 1000, 7);
+		assertEquals(bf.getMetrics(), null);
+		FilterMetrics metrics = bf.enableMetrics(false);
+		bf.add("evgeni");
+		bf.addAll(new String[] { "a", "b" });
+		bf.contains("evgeni");
+		bf.contains("sadpanda");
+		bf.containsAll(new String[] { "a", "b", "c" });
+		assertEquals(metrics.getAdds(), 3);
+		assertEquals(metrics.getQueries(), 5);
+		assertEquals(metrics.getPositives() >= 3, true);
+		assertEquals(metrics.getAddLatencyMeanNanos(), -1, 0);
+		metrics.reset();
+		assertEquals(metrics.getAdds(), 0);
+	}
+
+	@Test
+	public void fill() throws Exception {
+		System.out.println("fill");
+		ConcurrentBloomFilter<String> bf = new ConcurrentBloomFilter<>(10,
+				10000, 7);
+		FilterMetrics metrics = bf.enableMetrics(false);
+		assertEquals(metrics.getFillRatio(), 0, 0);
+		for (int i = 0; i < 5000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		assertEquals(metrics.getFillRatio(), (double) bf.cardinality()
+				/ bf.getBitSetSize(), 0);
+		// a half full filter at 10 bits / 7 hashes has about 30% of its bits set
+		assertEquals(metrics.getFillRatio(), 0.30, 0.02);
+		assertEquals(metrics.getEstimatedCardinality(), 5000, 150);
+		assertEquals(metrics.getEstimatedFalsePositiveProbability(),
+				bf.getFalsePositiveProbability(), 0.001);
+	}
+
+	@Test
+	public void latency() throws Exception {
+		System.out.println("latency");
+		BloomFilter<String> bf = new BloomFilter<>(10, 1000, 7);
+		FilterMetrics metrics = bf.enableMetrics(true);
+		final AtomicInteger positives = new AtomicInteger();
+		metrics.addListener(new MetricsListener() {
+			@Override
+			public void queried(boolean positive, long latencyNanos) {
+				if (positive) {
+					positives.incrementAndGet();
+				}
+			}
+		});
+		for (int i = 0; i < 100; i++) {
+			bf.add(String.valueOf(i));
+			bf.contains(String.valueOf(i));
+		}
+		assertEquals(metrics.getAddLatency().count(), 100);
+		assertEquals(metrics.getQueryLatency().count(), 100);
+		assertEquals(positives.get(), 100);
+		assertEquals(metrics.getQueryLatencyP99Nanos() > 0, true);
+	}
+
+	@Test
+	public void histogram() {
+		System.out.println("histogram");
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 99; i++) {
+			histogram.record(100);
+		}
+		histogram.record(5000);
+		assertEquals(histogram.percentile(0.5), 128);
+		assertEquals(histogram.percentile(1), 8192);
+		assertEquals(histogram.mean(), 149, 0);
+	}
+
+	@Test
+	public void jmx() throws Exception {
+		System.out.println("jmx");
+		BloomFilter<String> bf = new BloomFilter<>(10, 1000, 7);
+		FilterMetrics metrics = bf.enableMetrics(false);
+		ObjectName name = metrics.register("jmx-test");
+		try {
+			bf.add("evgeni");
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			assertEquals(server.getAttribute(name, "Adds"), 1L);
+			assertEquals(server.getAttribute(name, "ElementsCount"), 1L);
+		} finally {
+			metrics.unregister();
+		}
+		assertEquals(ManagementFactory.getPlatformMBeanServer().isRegistered(
+				name), false);
+	}
+}
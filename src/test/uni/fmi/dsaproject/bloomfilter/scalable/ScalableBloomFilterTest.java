@@ -0,0 +1,81 @@
+package test.uni.fmi.dsaproject.bloomfilter.scalable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.scalable.ScalableBloomFilter;
+
+public class ScalableBloomFilterTest {
+
+	@Test
+	public void growth() throws Exception {
+		System.out.println("scalable growth");
+		ScalableBloomFilter<String> bf = new ScalableBloomFilter<>(1000, 0.01);
+		for (int i = 0; i < 1000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		assertEquals(bf.getStageCount(), 1);
+		bf.add("1000");
+		assertEquals(bf.getStageCount(), 2);
+		// the second stage holds 2000, the third starts at 1000 + 2000 + 1
+		for (int i = 1001; i < 3000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		assertEquals(bf.getStageCount(), 2);
+		bf.add("3000");
+		assertEquals(bf.getStageCount(), 3);
+		assertEquals(bf.elementsCount(), 3001);
+		for (int i = 0; i <= 3000; i++) {
+			assertEquals(bf.contains(String.valueOf(i)), true);
+		}
+	}
+
+	@Test
+	public void compoundFalsePositiveProbability() throws Exception {
+		System.out.println("scalable compound false positive probability");
+		ScalableBloomFilter<String> bf = new ScalableBloomFilter<>(1000, 0.01);
+		// 1000 + 2000 + 4000 + 8000 + 16000, five full stages
+		for (int i = 0; i < 31000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		assertEquals(bf.getStageCount(), 5);
+		assertTrue(bf.getFalsePositiveProbability() < 0.01);
+		assertEquals(bf.expectedFalsePositiveProbability(), 0.01, 0);
+		int falsePositives = 0;
+		for (int i = 31000; i < 131000; i++) {
+			if (bf.contains(String.valueOf(i))) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives / 100000.0 < 0.01);
+	}
+
+	@Test
+	public void clear() throws Exception {
+		System.out.println("scalable clear");
+		ScalableBloomFilter<String> bf = new ScalableBloomFilter<>(100, 0.01);
+		for (int i = 0; i < 1000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		assertTrue(bf.getStageCount() > 1);
+		bf.clear();
+		assertEquals(bf.getStageCount(), 1);
+		assertEquals(bf.elementsCount(), 0);
+		assertEquals(bf.contains("0"), false);
+		assertEquals(bf.getFalsePositiveProbability(), 0, 0);
+	}
+
+	@Test
+	public void exceptionParameters() throws Exception {
+		System.out.println("exception - scalable parameters");
+		String message = null;
+		try {
+			new ScalableBloomFilter<String>(1000, 1);
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "False positive probability must be in (0, 1)");
+	}
+}
@@ -0,0 +1,178 @@
+package test.uni.fmi.dsaproject.bloomfilter.server;
+
+import static org.junit.Assert.assertEquals;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.server.FilterClient;
+import src.uni.fmi.dsaproject.bloomfilter.server.FilterProtocol;
+import src.uni.fmi.dsaproject.bloomfilter.server.FilterServer;
+
+public class FilterServerTest {
+
+	private FilterClient client(FilterServer server, int batchSize)
+			throws Exception {
+		return new FilterClient(new InetSocketAddress("localhost",
+				server.getPort()), 4, batchSize);
+	}
+
+	@Test
+	public void roundTrip() throws Exception {
+		System.out.println("server round trip");
+		BloomFilter<String> bf = BloomFilter.create(1000, 0.01);
+		try (FilterServer server = new FilterServer(0);
+				FilterClient client = new FilterClient("localhost",
+						server.start().getPort())) {
+			server.register("users", bf);
+			assertEquals(client.add("users", "evgeni", "sadpanda"), 2);
+			boolean[] result = client.contains("users", "evgeni", "x",
+					"sadpanda");
+			assertEquals(result[0], true);
+			assertEquals(result[1], bf.contains("x"));
+			assertEquals(result[2], true);
+			assertEquals(bf.contains("evgeni"), true);
+			assertEquals(bf.elementsCount(), 2);
+		}
+	}
+
+	@Test
+	public void unknownFilter() throws Exception {
+		System.out.println("exception - unknown filter");
+		try (FilterServer server = new FilterServer(0).start();
+				FilterClient client = this.client(server, 16)) {
+			String message = null;
+			try {
+				client.add("missing", "evgeni");
+			} catch (Exception e) {
+				message = e.getMessage();
+			}
+			assertEquals(message, "Unknown filter: missing");
+			// the connection is still usable after an error response
+			server.register("users", BloomFilter.<String> create(10, 0.01));
+			assertEquals(client.add("users", "evgeni"), 1);
+		}
+	}
+
+	@Test
+	public void pipelinedBatches() throws Exception {
+		System.out.println("server pipelined batches");
+		BloomFilter<String> bf = BloomFilter.create(100000, 0.01);
+		List<byte[]> keys = new ArrayList<>();
+		for (int i = 0; i < 100000; i++) {
+			keys.add(String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+		}
+		try (FilterServer server = new FilterServer(0).start();
+				FilterClient client = this.client(server, 1000)) {
+			server.register("numbers", bf);
+			assertEquals(client.add("numbers", keys), 100000);
+			boolean[] result = client.contains("numbers", keys);
+			assertEquals(result.length, 100000);
+			for (int i = 0; i < result.length; i++) {
+				assertEquals(result[i], true);
+			}
+			assertEquals(bf.elementsCount(), 100000);
+		}
+	}
+
+	@Test
+	public void concurrentClients() throws Exception {
+		System.out.println("server concurrent clients");
+		final BloomFilter<String> bf = BloomFilter.create(40000, 0.01);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try (FilterServer server = new FilterServer(0).start();
+				final FilterClient client = this.client(server, 100)) {
+			server.register("numbers", bf);
+			List<Future<Integer>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				final int thread = t;
+				futures.add(pool.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						List<byte[]> keys = new ArrayList<>();
+						for (int i = 0; i < 5000; i++) {
+							keys.add((thread + ":" + i)
+									.getBytes(StandardCharsets.UTF_8));
+						}
+						client.add("numbers", keys);
+						int found = 0;
+						for (boolean contained : client.contains("numbers",
+								keys)) {
+							found += contained ? 1 : 0;
+						}
+						return found;
+					}
+				}));
+			}
+			for (Future<Integer> future : futures) {
+				assertEquals(future.get().intValue(), 5000);
+			}
+			assertEquals(bf.elementsCount(), 40000);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	// sends one raw frame body and returns the error message of the reply
+	private String rawRequest(SocketChannel channel, ByteBuffer body)
+			throws Exception {
+		ByteBuffer frame = ByteBuffer.allocate(4 + body.remaining());
+		frame.putInt(body.remaining()).put(body).flip();
+		while (frame.hasRemaining()) {
+			channel.write(frame);
+		}
+		ByteBuffer length = ByteBuffer.allocate(4);
+		while (length.hasRemaining()) {
+			channel.read(length);
+		}
+		ByteBuffer reply = ByteBuffer.allocate(length.getInt(0));
+		while (reply.hasRemaining()) {
+			channel.read(reply);
+		}
+		reply.flip();
+		assertEquals(reply.get(), FilterProtocol.ERROR);
+		reply.getInt();
+		byte[] message = new byte[reply.getShort()];
+		reply.get(message);
+		return new String(message, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void malformedFrames() throws Exception {
+		System.out.println("server malformed frames");
+		try (FilterServer server = new FilterServer(0).start();
+				FilterClient client = this.client(server, 16);
+				SocketChannel channel = SocketChannel.open(new InetSocketAddress(
+						"localhost", server.getPort()))) {
+			server.register("f", BloomFilter.<String> create(100, 0.01));
+			// a huge key count in a 20 byte frame
+			ByteBuffer body = ByteBuffer.allocate(12);
+			body.put(FilterProtocol.CONTAINS).putInt(1).putShort((short) 1)
+					.put((byte) 'f').putInt(Integer.MAX_VALUE - 8).flip();
+			assertEquals(this.rawRequest(channel, body), "Bad key count");
+			// a name running past the end of the frame
+			body = ByteBuffer.allocate(8);
+			body.put(FilterProtocol.ADD).putInt(2).putShort((short) 1000)
+					.put((byte) 'f').flip();
+			assertEquals(this.rawRequest(channel, body), "Malformed frame");
+			// a frame too short for its header
+			body = ByteBuffer.allocate(2);
+			body.put(FilterProtocol.ADD).put((byte) 0).flip();
+			assertEquals(this.rawRequest(channel, body), "Malformed frame");
+			// the server is still serving
+			assertEquals(client.add("f", "evgeni"), 1);
+			assertEquals(client.contains("f", "evgeni"), true);
+		}
+	}
+}
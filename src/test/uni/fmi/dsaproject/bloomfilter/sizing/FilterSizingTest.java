@@ -0,0 +1,69 @@
+package test.uni.fmi.dsaproject.bloomfilter.sizing;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.sizing.FilterSizing;
+
+public class FilterSizingTest {
+
+	@Test
+	public void optimal() throws Exception {
+		System.out.println("optimal");
+		FilterSizing sizing = FilterSizing.optimal(1000000, 0.01);
+		// -1e6 * ln(0.01) / ln(2)^2 = 9585058.4 bits
+		assertEquals(sizing.getOptimalBitSetSize(), 9585058.4, 0.1);
+		assertEquals(sizing.getBitSetSize(), 9585088);
+		assertEquals(sizing.getWordCount(), 149767);
+		assertEquals(sizing.getHashFunctionsCount(), 7);
+		assertEquals(sizing.getBitSetBytes(), 1198136);
+		// k is rounded from 6.64, which costs a hair of accuracy
+		assertEquals(sizing.getExpectedFalsePositiveProbability(), 0.01,
+				0.0001);
+	}
+
+	@Test
+	public void small() throws Exception {
+		System.out.println("small");
+		// 10 elements at 1% fit in a single word, where the old two argument
+		// constructor would take 6 whole bits per element
+		FilterSizing sizing = FilterSizing.optimal(10, 0.01);
+		assertEquals(sizing.getBitSetSize(), 128);
+		assertEquals(FilterSizing.optimal(1, 0.5).getBitSetSize(), 64);
+		// k follows p, not the 64 bits the single element got
+		assertEquals(FilterSizing.optimal(1, 0.5).getHashFunctionsCount(), 1);
+		assertEquals(sizing.getHashFunctionsCount(), 7);
+		assertEquals(sizing.getExpectedFalsePositiveProbability() < 0.01, true);
+	}
+
+	@Test(expected = Exception.class)
+	public void exceptionProbability() throws Exception {
+		System.out.println("exception probability");
+		FilterSizing.optimal(100, 1.0);
+	}
+
+	@Test
+	public void create() throws Exception {
+		System.out.println("create");
+		int n = 100000;
+		BloomFilter<String> bf = BloomFilter.create(n, 0.01);
+		FilterSizing sizing = FilterSizing.optimal(n, 0.01);
+		assertEquals(bf.getBitSetSize(), sizing.getBitSetSize());
+		assertEquals(bf.getHashFunctionsCount(),
+				sizing.getHashFunctionsCount());
+		for (int i = 0; i < n; i++) {
+			bf.add(String.valueOf(i));
+		}
+		int falsePositives = 0;
+		for (int i = n; i < 2 * n; i++) {
+			if (bf.contains(String.valueOf(i))) {
+				falsePositives++;
+			}
+		}
+		assertEquals((double) falsePositives / n, 0.01, 0.002);
+		assertEquals(bf.getFalsePositiveProbability(),
+				sizing.getExpectedFalsePositiveProbability(), 0);
+	}
+}
@@ -0,0 +1,105 @@
+package test.uni.fmi.dsaproject.bloomfilter.snapshot;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.bitset.BloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.snapshot.FilterSnapshot;
+import src.uni.fmi.dsaproject.bloomfilter.snapshot.PublishedBloomFilter;
+
+public class PublishedBloomFilterTest {
+
+	@Test
+	public void publish() throws Exception {
+		System.out.println("publish");
+		PublishedBloomFilter<String> filter = new PublishedBloomFilter<>(
+				BloomFilter.<String> create(1000, 0.01));
+		filter.builder().add("evgeni");
+		assertEquals(filter.contains("evgeni"), false);
+		FilterSnapshot<String> before = filter.snapshot();
+		filter.publish();
+		assertEquals(filter.contains("evgeni"), true);
+		// a snapshot never changes once taken
+		assertEquals(before.contains("evgeni"), false);
+		assertEquals(filter.snapshot().elementsCount(), 1);
+	}
+
+	@Test
+	public void snapshot() throws Exception {
+		System.out.println("snapshot");
+		BloomFilter<String> bf = new BloomFilter<>(10, 1001, 7);
+		for (int i = 0; i < 1000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		bf.addLong(42);
+		FilterSnapshot<String> snapshot = bf.snapshot();
+		for (int i = 0; i < 2000; i++) {
+			assertEquals(snapshot.contains(String.valueOf(i)),
+					bf.contains(String.valueOf(i)));
+		}
+		assertEquals(snapshot.containsLong(42), true);
+		assertEquals(snapshot.getFalsePositiveProbability(),
+				bf.getFalsePositiveProbability(), 1e-12);
+		bf.clear();
+		assertEquals(snapshot.contains("1"), true);
+	}
+
+	@Test
+	public void rebuild() throws Exception {
+		System.out.println("rebuild while reading");
+		final PublishedBloomFilter<String> filter = new PublishedBloomFilter<>(
+				BloomFilter.<String> create(10000, 0.01));
+		for (int i = 0; i < 1000; i++) {
+			filter.builder().add("stable" + i);
+		}
+		filter.publish();
+		final AtomicBoolean done = new AtomicBoolean();
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		try {
+			List<Future<Integer>> readers = new ArrayList<>();
+			for (int t = 0; t < 3; t++) {
+				readers.add(pool.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						int misses = 0;
+						while (!done.get()) {
+							for (int i = 0; i < 1000; i++) {
+								if (!filter.contains("stable" + i)) {
+									misses++;
+								}
+							}
+						}
+						return misses;
+					}
+				}));
+			}
+			// every rebuild clears the builder and adds the stable keys back
+			for (int round = 0; round < 50; round++) {
+				BloomFilter<String> builder = filter.builder();
+				builder.clear();
+				for (int i = 0; i < 1000; i++) {
+					builder.add("stable" + i);
+				}
+				for (int i = 0; i < 100; i++) {
+					builder.add(round + ":" + i);
+				}
+				filter.publish();
+			}
+			done.set(true);
+			for (Future<Integer> reader : readers) {
+				assertEquals(reader.get().intValue(), 0);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
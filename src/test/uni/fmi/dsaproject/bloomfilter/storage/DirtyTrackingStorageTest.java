@@ -0,0 +1,191 @@
+package test.uni.fmi.dsaproject.bloomfilter.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.core.StorageBloomFilter;
+import src.uni.fmi.dsaproject.bloomfilter.storage.AtomicLongArrayStorage;
+import src.uni.fmi.dsaproject.bloomfilter.storage.DirtyTrackingStorage;
+import src.uni.fmi.dsaproject.bloomfilter.storage.LongArrayStorage;
+import src.uni.fmi.dsaproject.bloomfilter.storage.MappedFileStorage;
+import src.uni.fmi.dsaproject.bloomfilter.storage.StorageDelta;
+
+public class DirtyTrackingStorageTest {
+
+	@Test
+	public void incrementalDeltas() throws Exception {
+		System.out.println("incremental deltas");
+		DirtyTrackingStorage tracked = new DirtyTrackingStorage(
+				new LongArrayStorage(1 << 20));
+		LongArrayStorage replica = new LongArrayStorage(1 << 20);
+		assertEquals(tracked.pageCount(), 32);
+
+		StorageDelta full = tracked.delta(DirtyTrackingStorage.INITIAL_EPOCH);
+		assertEquals(full.isReset(), true);
+		assertEquals(full.pageCount(), 32);
+		full.applyTo(replica);
+
+		// pages 0 and 5, bit 0 of page 5 is word 2560
+		tracked.set(3);
+		tracked.set(2560L * 64 + 1);
+		tracked.set(3);
+		assertEquals(tracked.dirtyPages(full.getEpoch()), 2);
+		StorageDelta delta = tracked.delta(full.getEpoch());
+		assertEquals(delta.isReset(), false);
+		assertArrayEquals(delta.getPages(), new int[] { 0, 5 });
+		assertEquals(delta.sizeInBytes(), 48 + 2 * 4 + 2 * 512 * 8 + 8);
+		delta.applyTo(replica);
+		assertArrayEquals(replica.toLongArray(), tracked.toLongArray());
+
+		// nothing changed since
+		assertEquals(tracked.delta(delta.getEpoch()).pageCount(), 0);
+	}
+
+	@Test
+	public void resetAfterClear() throws Exception {
+		System.out.println("delta after clear");
+		DirtyTrackingStorage tracked = new DirtyTrackingStorage(
+				new LongArrayStorage(4096), 8);
+		LongArrayStorage replica = new LongArrayStorage(4096);
+		tracked.set(10);
+		tracked.set(4000);
+		StorageDelta first = tracked.delta(DirtyTrackingStorage.INITIAL_EPOCH);
+		first.applyTo(replica);
+		tracked.clear();
+		tracked.set(20);
+		StorageDelta second = tracked.delta(first.getEpoch());
+		assertEquals(second.isReset(), true);
+		second.applyTo(replica);
+		assertEquals(replica.get(10), false);
+		assertEquals(replica.get(4000), false);
+		assertEquals(replica.get(20), true);
+		assertEquals(tracked.delta(second.getEpoch()).isReset(), false);
+	}
+
+	@Test
+	public void serialization() throws Exception {
+		System.out.println("delta serialization");
+		DirtyTrackingStorage tracked = new DirtyTrackingStorage(
+				new LongArrayStorage(100000), 16);
+		long epoch = tracked.delta(DirtyTrackingStorage.INITIAL_EPOCH)
+				.getEpoch();
+		for (long i = 0; i < 100000; i += 7919) {
+			tracked.set(i);
+		}
+		StorageDelta delta = tracked.delta(epoch);
+		ByteBuffer buffer = delta.toByteBuffer();
+		assertEquals(buffer.remaining(), delta.sizeInBytes());
+		StorageDelta read = StorageDelta.readFrom(buffer);
+		assertEquals(buffer.remaining(), 0);
+		assertEquals(read.getEpoch(), delta.getEpoch());
+		assertArrayEquals(read.getPages(), delta.getPages());
+		LongArrayStorage replica = new LongArrayStorage(100000);
+		read.applyTo(replica);
+		assertArrayEquals(replica.toLongArray(), tracked.toLongArray());
+
+		ByteBuffer corrupted = delta.toByteBuffer();
+		// flip a bit in the first word
+		corrupted.put(StorageDelta.HEADER_SIZE + delta.pageCount() * 4,
+				(byte) (corrupted.get(StorageDelta.HEADER_SIZE
+						+ delta.pageCount() * 4) ^ 1));
+		String message = null;
+		try {
+			StorageDelta.readFrom(corrupted);
+		} catch (Exception e) {
+			message = e.getMessage();
+		}
+		assertEquals(message, "Checksum mismatch");
+	}
+
+	@Test
+	public void checkpointToFile() throws Exception {
+		System.out.println("checkpoint to mapped file");
+		Path path = Files.createTempFile("bloom", ".pages");
+		Files.delete(path);
+		DirtyTrackingStorage tracked = new DirtyTrackingStorage(
+				new LongArrayStorage(1 << 26));
+		StorageBloomFilter<String> bf = new StorageBloomFilter<>(tracked,
+				10000, 7);
+		try (MappedFileStorage file = MappedFileStorage.create(path, 1 << 26)) {
+			long epoch = DirtyTrackingStorage.INITIAL_EPOCH;
+			for (int round = 0; round < 5; round++) {
+				for (int i = 0; i < 100; i++) {
+					bf.add(round + ":" + i);
+				}
+				StorageDelta delta = tracked.delta(epoch);
+				// after the first full image only the touched pages are written
+				if (round > 0) {
+					assertEquals(delta.isReset(), false);
+					assertEquals(delta.pageCount() <= 700, true);
+				}
+				delta.applyTo(file);
+				epoch = delta.getEpoch();
+			}
+			file.force();
+			StorageBloomFilter<String> restored = new StorageBloomFilter<>(
+					file, 10000, 7);
+			assertArrayEquals(restored.toLongArray(), bf.toLongArray());
+			assertEquals(restored.contains("4:99"), true);
+		} finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	@Test
+	public void concurrentWriters() throws Exception {
+		System.out.println("deltas under concurrent writers");
+		final DirtyTrackingStorage tracked = new DirtyTrackingStorage(
+				new AtomicLongArrayStorage(1 << 22), 64);
+		LongArrayStorage replica = new LongArrayStorage(1 << 22);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				final long seed = t;
+				futures.add(pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						long x = seed * 0x9E3779B97F4A7C15L + 1;
+						for (int i = 0; i < 200000; i++) {
+							x ^= x << 13;
+							x ^= x >>> 7;
+							x ^= x << 17;
+							tracked.set((x >>> 1) % (1 << 22));
+						}
+						return null;
+					}
+				}));
+			}
+			long epoch = DirtyTrackingStorage.INITIAL_EPOCH;
+			boolean done = false;
+			while (!done) {
+				done = true;
+				for (Future<Void> future : futures) {
+					done &= future.isDone();
+				}
+				StorageDelta delta = tracked.delta(epoch);
+				delta.applyTo(replica);
+				epoch = delta.getEpoch();
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+			tracked.delta(epoch).applyTo(replica);
+			assertArrayEquals(replica.toLongArray(), tracked.toLongArray());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
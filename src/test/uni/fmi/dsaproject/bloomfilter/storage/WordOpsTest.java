@@ -0,0 +1,69 @@
+package test.uni.fmi.dsaproject.bloomfilter.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.storage.WordOps;
+
+public class WordOpsTest {
+	private Random r = new Random();
+
+	private long[] random(int length) {
+		long[] words = new long[length];
+		for (int i = 0; i < length; i++) {
+			words[i] = r.nextLong();
+		}
+		return words;
+	}
+
+	@Test
+	public void popcount() {
+		System.out.println("popcount");
+		for (int length = 0; length < 20; length++) {
+			long[] words = random(length);
+			long expected = 0;
+			for (long word : words) {
+				expected += Long.bitCount(word);
+			}
+			assertEquals(WordOps.popcount(words), expected);
+		}
+	}
+
+	@Test
+	public void orAnd() {
+		System.out.println("or / and");
+		for (int length = 0; length < 20; length++) {
+			long[] a = random(length);
+			long[] b = random(length);
+			long[] or = new long[length];
+			long[] and = new long[length];
+			long unionBits = 0;
+			for (int i = 0; i < length; i++) {
+				or[i] = a[i] | b[i];
+				and[i] = a[i] & b[i];
+				unionBits += Long.bitCount(or[i]);
+			}
+			assertEquals(WordOps.unionPopcount(a, b), unionBits);
+			long[] target = a.clone();
+			WordOps.or(target, b);
+			assertArrayEquals(target, or);
+			target = a.clone();
+			WordOps.and(target, b);
+			assertArrayEquals(target, and);
+		}
+	}
+
+	@Test
+	public void differentLengths() {
+		System.out.println("different lengths");
+		long[] target = { -1L, -1L, -1L, -1L, -1L, -1L };
+		WordOps.and(target, new long[] { 1L, 2L });
+		assertArrayEquals(target, new long[] { 1L, 2L, 0, 0, 0, 0 });
+		assertEquals(WordOps.unionPopcount(new long[] { 1L },
+				new long[] { 2L, 3L }), 4);
+	}
+}
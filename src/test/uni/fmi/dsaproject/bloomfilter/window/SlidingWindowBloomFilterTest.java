@@ -0,0 +1,155 @@
+package test.uni.fmi.dsaproject.bloomfilter.window;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.hash.Funnels;
+import src.uni.fmi.dsaproject.bloomfilter.hash.HashStrategies;
+import src.uni.fmi.dsaproject.bloomfilter.window.SlidingWindowBloomFilter;
+
+public class SlidingWindowBloomFilterTest {
+
+	private int countContained(SlidingWindowBloomFilter<String> bf, int from,
+			int to) {
+		int count = 0;
+		for (int i = from; i < to; i++) {
+			if (bf.contains(String.valueOf(i))) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void countWindow() throws Exception {
+		System.out.println("count window");
+		SlidingWindowBloomFilter<String> bf = SlidingWindowBloomFilter
+				.countWindow(3, 1000, 0.01);
+		for (int i = 0; i < 3000; i++) {
+			bf.add(String.valueOf(i));
+		}
+		assertEquals(countContained(bf, 0, 3000), 3000);
+		assertEquals(bf.elementsCount(), 3000);
+		// the next add rotates out the generation holding 0..999 only
+		bf.add("3000");
+		assertEquals(countContained(bf, 0, 1000) < 20, true);
+		assertEquals(countContained(bf, 1000, 3001), 2001);
+		assertEquals(bf.elementsCount(), 2001);
+		assertEquals(bf.getFalsePositiveProbability() < 0.01, true);
+	}
+
+	@Test
+	public void timeWindow() throws Exception {
+		System.out.println("time window");
+		final AtomicLong now = new AtomicLong();
+		SlidingWindowBloomFilter<String> bf = new SlidingWindowBloomFilter<>(
+				2, 1000, 0.01, 60, HashStrategies.XXHASH64,
+				Funnels.TO_STRING, now::get);
+		bf.add("evgeni");
+		now.set(60);
+		bf.add("sadpanda");
+		assertEquals(bf.contains("evgeni"), true);
+		assertEquals(bf.contains("sadpanda"), true);
+		now.set(120);
+		bf.add("panda");
+		assertEquals(bf.contains("evgeni"), false);
+		assertEquals(bf.contains("sadpanda"), true);
+		assertEquals(bf.contains("panda"), true);
+	}
+
+	@Test
+	public void idleGap() throws Exception {
+		System.out.println("time window after an idle gap");
+		final AtomicLong now = new AtomicLong();
+		SlidingWindowBloomFilter<String> bf = new SlidingWindowBloomFilter<>(
+				2, 1000, 0.01, 60, HashStrategies.XXHASH64,
+				Funnels.TO_STRING, now::get);
+		bf.add("old");
+		now.set(100000);
+		// expired on the lookup alone, no add needed
+		assertEquals(bf.contains("old"), false);
+		bf.add("new");
+		assertEquals(bf.contains("new"), true);
+		assertEquals(bf.elementsCount(), 1);
+
+		SlidingWindowBloomFilter<String> three = new SlidingWindowBloomFilter<>(
+				3, 1000, 0.01, 60, HashStrategies.XXHASH64,
+				Funnels.TO_STRING, now::get);
+		three.add("a");
+		now.addAndGet(60);
+		three.add("b");
+		// one generation gone by, the window still covers both
+		now.addAndGet(90);
+		assertEquals(three.contains("a"), true);
+		assertEquals(three.contains("b"), true);
+		// two more, everything up to "b" has expired
+		now.addAndGet(100);
+		assertEquals(three.contains("a"), false);
+		assertEquals(three.contains("b"), false);
+	}
+
+	@Test
+	public void checkAndAdd() throws Exception {
+		System.out.println("check and add");
+		SlidingWindowBloomFilter<String> bf = SlidingWindowBloomFilter
+				.countWindow(2, 100, 0.01);
+		assertEquals(bf.checkAndAdd("evgeni"), false);
+		assertEquals(bf.checkAndAdd("evgeni"), true);
+		assertEquals(bf.elementsCount(), 1);
+		bf.clear();
+		assertEquals(bf.checkAndAdd("evgeni"), false);
+	}
+
+	@Test
+	public void concurrentRotation() throws Exception {
+		System.out.println("concurrent rotation");
+		final int threads = 4;
+		final int perThread = 20000;
+		final SlidingWindowBloomFilter<String> bf = SlidingWindowBloomFilter
+				.countWindow(4, 5000, 0.01);
+		// keeps the threads within 1000 adds of each other, otherwise one that
+		// finishes early sees its last adds rotated out by the others
+		final CyclicBarrier step = new CyclicBarrier(threads);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Void>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				final int thread = t;
+				futures.add(pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						for (int i = 0; i < perThread; i++) {
+							if (i % 1000 == 0) {
+								step.await();
+							}
+							bf.add(thread + ":" + i);
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		// the last 4 * 1000 adds are well inside the three full generations
+		for (int t = 0; t < threads; t++) {
+			for (int i = perThread - 500; i < perThread; i++) {
+				assertEquals(bf.contains(t + ":" + i), true);
+			}
+		}
+		assertEquals(bf.elementsCount() <= 4 * (5000 + threads), true);
+	}
+}
@@ -0,0 +1,56 @@
+package test.uni.fmi.dsaproject.bloomfilter.xor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import src.uni.fmi.dsaproject.bloomfilter.xor.XorFilter;
+
+public class XorFilterTest {
+
+	@Test
+	public void contains() throws Exception {
+		System.out.println("contains");
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 100000; i++) {
+			keys.add(String.valueOf(i));
+		}
+		XorFilter<String> xf = XorFilter.build(keys);
+		for (String key : keys) {
+			assertEquals(xf.contains(key), true);
+		}
+		int falsePositives = 0;
+		for (int i = 100000; i < 200000; i++) {
+			if (xf.contains(String.valueOf(i))) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives / 100000.0 < 2 * xf
+				.getFalsePositiveProbability());
+		assertTrue(xf.getBitPerElement() < 10);
+	}
+
+	@Test
+	public void duplicates() throws Exception {
+		System.out.println("duplicates");
+		XorFilter<String> xf = XorFilter.build(Arrays.asList("evgeni",
+				"evgeni", "sadpanda"));
+		assertEquals(xf.elementsCount(), 2);
+		assertEquals(xf.contains("evgeni"), true);
+		assertEquals(xf.contains("sadpanda"), true);
+	}
+
+	@Test
+	public void empty() throws Exception {
+		System.out.println("empty");
+		XorFilter<String> xf = XorFilter.build(Collections.<String> emptyList());
+		assertEquals(xf.elementsCount(), 0);
+		assertEquals(xf.contains("evgeni"), false);
+	}
+}